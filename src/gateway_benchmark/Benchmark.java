@@ -0,0 +1,104 @@
+package gateway_benchmark;
+
+/**
+ * Benchmarks measure how long a single operation takes. Each benchmark is first run 
+ * until the code has been compiled and then measured over multiple iterations.
+ * @author agent
+ * @since 18.10.2026
+ */
+public abstract class Benchmark
+{
+	// ATTRIBUTES	------------------------
+	
+	private String name;
+	private long sink;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new benchmark
+	 * @param name The name of the benchmark, shown in the results
+	 */
+	public Benchmark(String name)
+	{
+		this.name = name;
+		this.sink = 0;
+	}
+	
+	
+	// ABSTRACT METHODS	--------------------
+	
+	/**
+	 * Performs the measured operation once
+	 * @return A value that depends on the result of the operation. The values are 
+	 * collected so that the work can't be optimized away.
+	 */
+	protected abstract long runOperation();
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return The name of the benchmark
+	 */
+	public String getName()
+	{
+		return this.name;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Prepares the benchmark before it is run. The preparation is not measured.
+	 */
+	protected void setUp()
+	{
+		// No preparation is needed by default
+	}
+	
+	/**
+	 * Runs the benchmark and prints the results. The values returned by the operations are 
+	 * printed as a checksum, so that the JIT can't remove the measured work.
+	 * @param warmupIterations How many iterations are run before the measurements
+	 * @param iterations How many iterations are measured
+	 * @param operations How many operations are performed on each iteration
+	 * @return The average duration of a single operation in nanoseconds
+	 */
+	public double run(int warmupIterations, int iterations, int operations)
+	{
+		setUp();
+		
+		for (int i = 0; i < warmupIterations; i++)
+		{
+			runIteration(operations);
+		}
+		
+		double total = 0;
+		double best = Double.MAX_VALUE;
+		for (int i = 0; i < iterations; i++)
+		{
+			double duration = runIteration(operations);
+			total += duration;
+			best = Math.min(best, duration);
+		}
+		
+		double average = total / iterations;
+		System.out.println(String.format("%-40s %12.1f ns/op %12.1f ns/op (best)  checksum %d", 
+				getName(), average, best, this.sink));
+		
+		return average;
+	}
+	
+	private double runIteration(int operations)
+	{
+		long start = System.nanoTime();
+		for (int i = 0; i < operations; i++)
+		{
+			this.sink += runOperation();
+		}
+		
+		return (System.nanoTime() - start) / (double) operations;
+	}
+}
@@ -0,0 +1,435 @@
+package gateway_benchmark;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.TextAttribute;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import gateway_event.ButtonEvent;
+import gateway_event.ButtonEventListener;
+import gateway_event.ButtonEventMaskSelector;
+import gateway_ui.AbstractButton;
+import gateway_ui.BitmapFont;
+import gateway_ui.MessageBox;
+import gateway_ui.RectangleButton;
+import gateway_ui.SimpleSliderOption;
+import gateway_ui.TextDrawer;
+import genesis_event.DrawableHandler;
+import genesis_event.EventSelector;
+import genesis_event.HandlerRelay;
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButton;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MouseEvent.MouseMovementEventType;
+import genesis_event.MouseListenerHandler;
+import genesis_util.SimpleHandled;
+import genesis_util.Vector3D;
+
+/**
+ * This class measures the performance of the most frequently used operations in this module. 
+ * The benchmarks don't need a window, the drawing is done on an image and the mouse events 
+ * are delivered to the objects directly.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class GatewayBenchmark
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final Font FONT = new Font(Font.SERIF, Font.PLAIN, 14);
+	private static final Color[] LINE_COLORS = {Color.BLACK};
+	private static final Color[] FILL_COLORS = {Color.WHITE, Color.LIGHT_GRAY, Color.GRAY};
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	private GatewayBenchmark()
+	{
+		// The interface is static
+	}
+	
+	
+	// MAIN METHOD	------------------------
+	
+	/**
+	 * Runs the benchmarks
+	 * @param args The amount of measured iterations (optional)
+	 */
+	public static void main(String[] args)
+	{
+		System.setProperty("java.awt.headless", "true");
+		
+		int iterations = 10;
+		if (args.length > 0)
+			iterations = Integer.parseInt(args[0]);
+		
+		List<Benchmark> benchmarks = new ArrayList<>();
+		benchmarks.add(new TextDrawingBenchmark("TextDrawer.drawText", false, false));
+		benchmarks.add(new TextDrawingBenchmark("TextDrawer.drawText (buffered)", true, 
+				false));
+		benchmarks.add(new TextDrawingBenchmark("TextDrawer.drawText (scrolling)", false, 
+				true));
+		benchmarks.add(new StringDrawingBenchmark("Graphics2D.drawString", false, false));
+		benchmarks.add(new StringDrawingBenchmark("BitmapFont.drawString", true, false));
+		benchmarks.add(new StringDrawingBenchmark("Graphics2D.drawString (kerning)", false, 
+				true));
+		benchmarks.add(new StringDrawingBenchmark("BitmapFont.drawString (kerning)", true, 
+				true));
+		benchmarks.add(new ButtonDispatchBenchmark("AbstractButton.onMouseEvent (0)", 0));
+		benchmarks.add(new ButtonDispatchBenchmark("AbstractButton.onMouseEvent (1)", 1));
+		benchmarks.add(new ButtonDispatchBenchmark("AbstractButton.onMouseEvent (50)", 50));
+		benchmarks.add(new MessageBoxLayoutBenchmark("MessageBox.addButton", 5));
+		benchmarks.add(new SliderDragBenchmark("AbstractSliderOption drag"));
+		
+		for (Benchmark benchmark : benchmarks)
+		{
+			benchmark.run(5, iterations, 1000);
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	private static HandlerRelay createHandlers()
+	{
+		// The handlers are not connected to a window so the events must be delivered manually
+		HandlerRelay handlers = new HandlerRelay();
+		handlers.addHandler(new MouseListenerHandler(false, (HandlerRelay) null));
+		handlers.addHandler(new DrawableHandler(false, (DrawableHandler) null));
+		
+		return handlers;
+	}
+	
+	private static Graphics2D createGraphics(int width, int height)
+	{
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = image.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, 
+				RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+		
+		return g2d;
+	}
+	
+	private static String createText(int paragraphs)
+	{
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < paragraphs; i++)
+		{
+			text.append("Paragraph number ").append(i);
+			text.append(" contains enough words to be wrapped on multiple lines#");
+		}
+		
+		return text.toString();
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class TextDrawingBenchmark extends Benchmark
+	{
+		// ATTRIBUTES	--------------------
+		
+		private boolean buffered, scrolling;
+		private TextDrawer drawer;
+		private Graphics2D g2d;
+		private int frame;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public TextDrawingBenchmark(String name, boolean buffered, boolean scrolling)
+		{
+			super(name);
+			
+			this.buffered = buffered;
+			this.scrolling = scrolling;
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		protected void setUp()
+		{
+			this.drawer = new TextDrawer(createText(50), "#", FONT, Color.BLACK, 
+					new Vector3D(300, 400), new Vector3D(5, 5), Vector3D.zeroVector());
+			this.drawer.setBuffered(this.buffered);
+			this.drawer.setClipsToArea(this.scrolling);
+			this.g2d = createGraphics(300, 400);
+			this.frame = 0;
+		}
+		
+		@Override
+		protected long runOperation()
+		{
+			if (this.scrolling)
+				this.drawer.setScrollOffset((this.frame * 7) % 1000);
+			this.frame ++;
+			
+			this.drawer.drawText(this.g2d);
+			return this.frame;
+		}
+	}
+	
+	private static class StringDrawingBenchmark extends Benchmark
+	{
+		// ATTRIBUTES	--------------------
+		
+		private static final String TEXT = "Hello World";
+		
+		private boolean bitmap, kerning;
+		private BitmapFont bitmapFont;
+		private Graphics2D g2d;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public StringDrawingBenchmark(String name, boolean bitmap, boolean kerning)
+		{
+			super(name);
+			
+			this.bitmap = bitmap;
+			this.kerning = kerning;
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		protected void setUp()
+		{
+			Font font = FONT;
+			if (this.kerning)
+			{
+				Map<TextAttribute, Object> attributes = new HashMap<>();
+				attributes.put(TextAttribute.KERNING, TextAttribute.KERNING_ON);
+				font = FONT.deriveFont(attributes);
+			}
+			
+			this.g2d = createGraphics(300, 50);
+			this.g2d.setFont(font);
+			this.g2d.setColor(Color.BLACK);
+			if (this.bitmap)
+				this.bitmapFont = new BitmapFont(font);
+		}
+		
+		@Override
+		protected long runOperation()
+		{
+			if (this.bitmap)
+				this.bitmapFont.drawString(this.g2d, TEXT, 0, TEXT.length(), 5, 30, 
+						Color.BLACK);
+			else
+				this.g2d.drawString(TEXT, 5, 30);
+			
+			return TEXT.length();
+		}
+	}
+	
+	private static class ButtonDispatchBenchmark extends Benchmark
+	{
+		// ATTRIBUTES	--------------------
+		
+		private int listenerAmount;
+		private AbstractButton button;
+		private CountingListener[] listeners;
+		private MouseEvent[] events;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public ButtonDispatchBenchmark(String name, int listenerAmount)
+		{
+			super(name);
+			
+			this.listenerAmount = listenerAmount;
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		protected void setUp()
+		{
+			HandlerRelay handlers = createHandlers();
+			this.button = new RectangleButton(new Vector3D(10, 10), handlers, 0, 
+					new Vector3D(100, 30), Vector3D.zeroVector(), LINE_COLORS, FILL_COLORS);
+			
+			this.listeners = new CountingListener[this.listenerAmount];
+			for (int i = 0; i < this.listeners.length; i++)
+			{
+				this.listeners[i] = new CountingListener(handlers);
+				this.button.getListenerHandler().add(this.listeners[i]);
+			}
+			
+			// Each operation is a full click: enter, press, release and exit
+			Vector3D position = new Vector3D(50, 20);
+			this.events = new MouseEvent[] {
+					new MouseEvent(MouseMovementEventType.ENTER, position, 0), 
+					new MouseEvent(MouseButton.LEFT, MouseButtonEventType.PRESSED, position, 
+							0), 
+					new MouseEvent(MouseButton.LEFT, MouseButtonEventType.RELEASED, position, 
+							0), 
+					new MouseEvent(MouseMovementEventType.EXIT, position, 0)};
+		}
+		
+		@Override
+		protected long runOperation()
+		{
+			for (MouseEvent event : this.events)
+			{
+				this.button.onMouseEvent(event);
+			}
+			
+			return this.listeners.length == 0 ? 0 : this.listeners[0].getEventAmount();
+		}
+	}
+	
+	private static class MessageBoxLayoutBenchmark extends Benchmark
+	{
+		// ATTRIBUTES	--------------------
+		
+		private int buttonAmount;
+		private String message;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public MessageBoxLayoutBenchmark(String name, int buttonAmount)
+		{
+			super(name);
+			
+			this.buttonAmount = buttonAmount;
+			this.message = createText(3);
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		protected long runOperation()
+		{
+			// A new box is created each time since the buttons can't be removed
+			MessageBox box = new MessageBox(new Vector3D(50, 50), 300, new Vector3D(10, 10), 
+					this.message, "#", FONT, FONT, Color.BLACK, createHandlers());
+			for (int i = 0; i < this.buttonAmount; i++)
+			{
+				box.addButton(LINE_COLORS, FILL_COLORS, new Vector3D(64, 32), 
+						new Vector3D(5, 5), "Button", false);
+			}
+			
+			return box.getDimensions().getSecondInt();
+		}
+	}
+	
+	private static class SliderDragBenchmark extends Benchmark
+	{
+		// ATTRIBUTES	--------------------
+		
+		private SimpleSliderOption<Integer> slider;
+		private MouseEvent[] movements;
+		private int frame;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public SliderDragBenchmark(String name)
+		{
+			super(name);
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		protected void setUp()
+		{
+			HandlerRelay handlers = createHandlers();
+			List<Integer> options = new ArrayList<>();
+			for (int i = 0; i < 100; i++)
+			{
+				options.add(i);
+			}
+			
+			AbstractButton handle = new RectangleButton(Vector3D.zeroVector(), handlers, -2, 
+					new Vector3D(16, 16), new Vector3D(8, 8), LINE_COLORS, FILL_COLORS);
+			this.slider = new SimpleSliderOption<>(options, 0, 0, handlers, 
+					new Vector3D(400, 50), handle, new Vector3D(10, 5), FONT, Color.BLACK);
+			
+			// Grabs the handle so that the mouse movements drag it
+			Vector3D handlePosition = handle.getTransformation().getPosition();
+			this.slider.onMouseEvent(new MouseEvent(MouseMovementEventType.MOVE, 
+					handlePosition, 0));
+			handle.onMouseEvent(new MouseEvent(MouseMovementEventType.ENTER, handlePosition, 
+					0));
+			handle.onMouseEvent(new MouseEvent(MouseButton.LEFT, MouseButtonEventType.PRESSED, 
+					handlePosition, 0));
+			
+			this.movements = new MouseEvent[64];
+			for (int i = 0; i < this.movements.length; i++)
+			{
+				this.movements[i] = new MouseEvent(MouseMovementEventType.MOVE, 
+						handlePosition.plus(new Vector3D(i * 6, 0)), 0);
+			}
+			this.frame = 0;
+		}
+		
+		@Override
+		protected long runOperation()
+		{
+			this.slider.onMouseEvent(this.movements[this.frame % this.movements.length]);
+			this.frame ++;
+			
+			return this.slider.getCurrentChoise();
+		}
+	}
+	
+	private static class CountingListener extends SimpleHandled implements
+			ButtonEventListener
+	{
+		// ATTRIBUTES	--------------------
+		
+		private EventSelector<ButtonEvent> selector;
+		private int events;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public CountingListener(HandlerRelay handlers)
+		{
+			super(handlers);
+			
+			this.selector = new ButtonEventMaskSelector();
+			this.events = 0;
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		public void onButtonEvent(ButtonEvent e)
+		{
+			this.events ++;
+		}
+		
+		@Override
+		public EventSelector<ButtonEvent> getButtonEventSelector()
+		{
+			return this.selector;
+		}
+		
+		
+		// GETTERS & SETTERS	------------
+		
+		public int getEventAmount()
+		{
+			return this.events;
+		}
+	}
+}
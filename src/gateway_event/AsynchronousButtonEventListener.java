@@ -0,0 +1,257 @@
+package gateway_event;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import genesis_event.Actor;
+import genesis_event.EventSelector;
+import genesis_event.HandlerRelay;
+import genesis_util.ConnectedHandled;
+
+/**
+ * AsynchronousButtonEventListener informs another listener about button events in a 
+ * background thread so that slow listeners don't stall the user interface. The amount of 
+ * events being handled at once is limited and the events that arrive while the limit is 
+ * reached are skipped. Once an event has been handled, an optional completion listener is 
+ * informed in the game's own thread when this object acts. RuntimeExceptions thrown by the 
+ * listener are reported to the completion listener and the error listener. If neither is 
+ * set, they are passed to the background thread's uncaught exception handler, like Errors 
+ * always are.
+ * @author agent
+ * @since 18.10.2026
+ * @see ButtonEventHandler#addAsynchronously(ButtonEventListener, int, CompletionListener, 
+ * HandlerRelay)
+ */
+public class AsynchronousButtonEventListener extends ConnectedHandled<ButtonEventListener>
+		implements ButtonEventListener, Actor
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final ExecutorService executor = createExecutor();
+	
+	private int maxTasks;
+	private CompletionListener completionListener;
+	private volatile ErrorListener errorListener;
+	private AtomicInteger tasksInProgress;
+	private AtomicLong skippedEvents;
+	private Queue<Completion> completions;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new asynchronous listener. The listener still needs to be added to the 
+	 * buttonEventHandler(s) it listens to.
+	 * @param listener The listener that is informed in a background thread
+	 * @param maxTasks How many events the listener may handle at once
+	 * @param completionListener The listener that is informed when an event has been handled 
+	 * (optional)
+	 * @param handlers The handlers that will handle this object (actorHandler is required 
+	 * for the completion listener to be informed)
+	 */
+	public AsynchronousButtonEventListener(ButtonEventListener listener, int maxTasks, 
+			CompletionListener completionListener, HandlerRelay handlers)
+	{
+		super(listener, handlers);
+		
+		this.maxTasks = maxTasks;
+		this.completionListener = completionListener;
+		this.errorListener = null;
+		this.tasksInProgress = new AtomicInteger(0);
+		this.skippedEvents = new AtomicLong(0);
+		this.completions = new ConcurrentLinkedQueue<>();
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------
+	
+	@Override
+	public void onButtonEvent(final ButtonEvent e)
+	{
+		// Events are skipped while the listener is busy
+		if (this.tasksInProgress.incrementAndGet() > this.maxTasks)
+		{
+			this.tasksInProgress.decrementAndGet();
+			this.skippedEvents.incrementAndGet();
+			return;
+		}
+		
+		executor.execute(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				handleEvent(e);
+			}
+		});
+	}
+	
+	@Override
+	public EventSelector<ButtonEvent> getButtonEventSelector()
+	{
+		return getMaster().getButtonEventSelector();
+	}
+	
+	@Override
+	public void act(double duration)
+	{
+		// The listeners are informed in the same thread as the other objects
+		ErrorListener errorListener = this.errorListener;
+		Completion completion = this.completions.poll();
+		while (completion != null)
+		{
+			if (completion.getError() != null && errorListener != null)
+				errorListener.onButtonEventFailed(completion.getEvent(), completion.getError());
+			if (this.completionListener != null)
+				this.completionListener.onButtonEventHandled(completion.getEvent(), 
+						completion.getError());
+			completion = this.completions.poll();
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return How many events are currently being handled
+	 */
+	public int getTasksInProgress()
+	{
+		return this.tasksInProgress.get();
+	}
+	
+	/**
+	 * @return How many events have been skipped because the listener was busy
+	 */
+	public long getSkippedEventAmount()
+	{
+		return this.skippedEvents.get();
+	}
+	
+	/**
+	 * Changes the listener that is informed when the listener throws an exception while 
+	 * handling an event. The error listener is informed in the game's thread when this 
+	 * object acts.
+	 * @param errorListener The listener that is informed about the exceptions. Null if the 
+	 * exceptions should only be reported to the completion listener, or to the background 
+	 * thread's uncaught exception handler if there is no completion listener.
+	 */
+	public void setErrorListener(ErrorListener errorListener)
+	{
+		this.errorListener = errorListener;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	private void handleEvent(ButtonEvent e)
+	{
+		// Errors are left for the thread's uncaught exception handler
+		RuntimeException error = null;
+		try
+		{
+			getMaster().onButtonEvent(e);
+		}
+		catch (RuntimeException exception)
+		{
+			error = exception;
+		}
+		finally
+		{
+			this.tasksInProgress.decrementAndGet();
+		}
+		
+		if (this.completionListener != null || (error != null && this.errorListener != null))
+			this.completions.add(new Completion(e, error));
+		else if (error != null)
+			throw error;
+	}
+	
+	private static ExecutorService createExecutor()
+	{
+		// The threads shouldn't keep the program running
+		return Executors.newCachedThreadPool(new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "Asynchronous button event listener");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	
+	// INTERFACES	------------------------
+	
+	/**
+	 * CompletionListeners are informed when an asynchronous listener has handled an event
+	 * @author agent
+	 * @since 18.10.2026
+	 */
+	public static interface CompletionListener
+	{
+		/**
+		 * This method is called in the game's thread after an event has been handled
+		 * @param e The event that was handled
+		 * @param error The exception that was thrown while the event was handled. Null if 
+		 * the event was handled successfully.
+		 */
+		public void onButtonEventHandled(ButtonEvent e, RuntimeException error);
+	}
+	
+	/**
+	 * ErrorListeners are informed when an asynchronous listener throws an exception
+	 * @author agent
+	 * @since 18.10.2026
+	 */
+	public static interface ErrorListener
+	{
+		/**
+		 * This method is called in the game's thread after the listener failed to handle 
+		 * an event
+		 * @param e The event that was being handled
+		 * @param error The exception that was thrown
+		 */
+		public void onButtonEventFailed(ButtonEvent e, RuntimeException error);
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class Completion
+	{
+		// ATTRIBUTES	--------------------
+		
+		private ButtonEvent event;
+		private RuntimeException error;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public Completion(ButtonEvent event, RuntimeException error)
+		{
+			this.event = event;
+			this.error = error;
+		}
+		
+		
+		// GETTERS & SETTERS	------------
+		
+		public ButtonEvent getEvent()
+		{
+			return this.event;
+		}
+		
+		public RuntimeException getError()
+		{
+			return this.error;
+		}
+	}
+}
@@ -1,6 +1,8 @@
 package gateway_event;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import gateway_ui.AbstractButton;
@@ -9,7 +11,8 @@ import genesis_event.Event;
 import genesis_event.StrictEventSelector;
 
 /**
- * ButtonEvents are created when the user interacts with the various buttons
+ * ButtonEvents are created when the user interacts with the various buttons. The events are 
+ * immutable so they can be reused.
  * @author Mikko Hilpinen
  * @since 6.6.2015
  */
@@ -17,9 +20,14 @@ public class ButtonEvent implements Event
 {
 	// ATTRIBUTES	----------------------
 	
+	private static final int TYPE_AMOUNT = ButtonEventType.values().length;
+	private static final int STATUS_AMOUNT = ButtonStatus.values().length;
+	private static final List<List<Event.Feature>> FEATURES = createFeatureLists();
+	
 	private AbstractButton source;
 	private ButtonEventType type;
 	private ButtonStatus newStatus;
+	private int featureMask;
 	
 	
 	// CONSTRUCTOR	----------------------
@@ -29,6 +37,7 @@ public class ButtonEvent implements Event
 		this.type = type;
 		this.source = source;
 		this.newStatus = newStatus;
+		this.featureMask = getFeatureMask(type) | getFeatureMask(newStatus);
 	}
 	
 	/**
@@ -67,11 +76,8 @@ public class ButtonEvent implements Event
 	@Override
 	public List<Event.Feature> getFeatures()
 	{
-		List<Event.Feature> features = new ArrayList<>();
-		features.add(getType());
-		features.add(getNewStatus());
-		
-		return features;
+		// The feature lists are shared between all events
+		return FEATURES.get(getFeatureIndex(getType(), getNewStatus()));
 	}
 	
 	
@@ -101,6 +107,15 @@ public class ButtonEvent implements Event
 		return this.newStatus;
 	}
 	
+	/**
+	 * @return A bitmask that contains the bits of each of the event's features
+	 * @see #getFeatureMask(Feature)
+	 */
+	public int getFeatureMask()
+	{
+		return this.featureMask;
+	}
+	
 	
 	// OTHER METHODS	-----------------
 	
@@ -112,7 +127,7 @@ public class ButtonEvent implements Event
 	public static StrictEventSelector<ButtonEvent, ButtonEvent.Feature> 
 			createButtonEventSelector(ButtonEventType type)
 	{
-		StrictEventSelector<ButtonEvent, Feature> selector = new StrictEventSelector<>();
+		ButtonEventMaskSelector selector = new ButtonEventMaskSelector();
 		selector.addRequiredFeature(type);
 		return selector;
 	}
@@ -125,10 +140,52 @@ public class ButtonEvent implements Event
 	public static StrictEventSelector<ButtonEvent, ButtonEvent.Feature> 
 			createButtonPressReleaseEventSelector()
 	{
-		StrictEventSelector<ButtonEvent, Feature> selector = new StrictEventSelector<>();
+		ButtonEventMaskSelector selector = new ButtonEventMaskSelector();
 		selector.addUnacceptableFeature(ButtonEventType.STATUSCHANGE);
 		return selector;
 	}
+	
+	/**
+	 * @param type The type of an event
+	 * @param status The new status of the button
+	 * @return An index unique to the combination of the type and the status, between 0 and 8
+	 */
+	public static int getFeatureIndex(ButtonEventType type, ButtonStatus status)
+	{
+		return type.ordinal() * STATUS_AMOUNT + status.ordinal();
+	}
+	
+	/**
+	 * @param feature A feature of buttonEvents
+	 * @return A bitmask that has only the bit of the given feature set. Features that are 
+	 * not button event types or button statuses share the highest bit, which is never set 
+	 * for an event.
+	 */
+	public static int getFeatureMask(Feature feature)
+	{
+		if (feature instanceof ButtonEventType)
+			return 1 << ((ButtonEventType) feature).ordinal();
+		else if (feature instanceof ButtonStatus)
+			return 1 << (TYPE_AMOUNT + ((ButtonStatus) feature).ordinal());
+		
+		return 1 << 31;
+	}
+	
+	private static List<List<Event.Feature>> createFeatureLists()
+	{
+		// The lists are added in the order of their feature indices
+		List<List<Event.Feature>> featureLists = new ArrayList<>();
+		for (ButtonEventType type : ButtonEventType.values())
+		{
+			for (ButtonStatus status : ButtonStatus.values())
+			{
+				featureLists.add(Collections.unmodifiableList(
+						Arrays.<Event.Feature>asList(type, status)));
+			}
+		}
+		
+		return Collections.unmodifiableList(featureLists);
+	}
 
 	
 	// INTERFACES	---------------------
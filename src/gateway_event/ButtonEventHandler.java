@@ -1,13 +1,21 @@
 package gateway_event;
 
+import java.util.Arrays;
+
+import gateway_event.ButtonEvent.ButtonEventType;
 import genesis_event.EventSelector;
 import genesis_event.Handler;
 import genesis_event.HandlerRelay;
 import genesis_event.HandlerType;
-import genesis_event.StrictEventSelector;
 
 /**
- * ButtonEventHandlers inform multiple buttonListeners about buttonEvents.
+ * ButtonEventHandlers inform multiple buttonListeners about buttonEvents. The listeners are 
+ * grouped by the event types they can select so that each event is only offered to the 
+ * listeners that may be interested in it. The groups are formed from the listeners' selectors 
+ * when the next event arrives after the listeners or their selectors have changed.<br> 
+ * Events can be delivered from multiple threads at once and listeners may create new events 
+ * while they are being informed. Each event is delivered to a snapshot of the listeners that 
+ * the handler would handle when the delivery starts, in the order the listeners were added.
  * @author Mikko Hilpinen
  * @since 6.6.2015
  */
@@ -16,8 +24,14 @@ public class ButtonEventHandler extends Handler<ButtonEventListener> implements
 {
 	// ATTRIBUTES	-------------------------
 	
-	private ButtonEvent lastEvent;
 	private EventSelector<ButtonEvent> selector;
+	private Object listenerLock;
+	private ButtonEventListener[] collected;
+	private int collectedAmount;
+	private boolean collecting;
+	private volatile ListenerSnapshot snapshot;
+	private volatile int selectorChanges;
+	private volatile ButtonEventQueue queue;
 	
 	
 	// CONSTRUCTOR	-------------------------
@@ -63,44 +77,246 @@ public class ButtonEventHandler extends Handler<ButtonEventListener> implements
 	
 	
 	// IMPLEMENTED METHODS	-------------------------
-
+	
 	@Override
 	public void onButtonEvent(ButtonEvent e)
 	{
-		// Informs the listeners
-		this.lastEvent = e;
-		handleObjects(true);
-		this.lastEvent = null;
+		// In queued mode the events are delivered when the queue acts
+		ButtonEventQueue queue = this.queue;
+		if (queue != null)
+			queue.offer(this, e);
+		else
+			deliverEvent(e);
 	}
-
+	
 	@Override
 	public EventSelector<ButtonEvent> getButtonEventSelector()
 	{
 		return this.selector;
 	}
-
+	
 	@Override
 	public HandlerType getHandlerType()
 	{
 		return GatewayHandlerType.BUTTONEVENTHANDLER;
 	}
-
+	
 	@Override
 	protected boolean handleObject(ButtonEventListener h)
 	{
-		// Only informs active listeners that select the current event
-		if (h.getButtonEventSelector().selects(this.lastEvent))
-			h.onButtonEvent(this.lastEvent);
+		// The events are delivered through the snapshots. Handling only collects the
+		// listeners the handler would inform, in the handler's own order.
+		if (this.collecting)
+		{
+			if (this.collectedAmount == this.collected.length)
+				this.collected = Arrays.copyOf(this.collected, this.collected.length * 2 + 4);
+			this.collected[this.collectedAmount] = h;
+			this.collectedAmount ++;
+		}
 		
 		return true;
 	}
-
+	
 	
 	// OTHER METHODS	---------------------
 	
+	/**
+	 * Makes the handler queue the events instead of delivering them right away. The queued 
+	 * events are delivered when the queue acts.
+	 * @param queue The queue that collects the events. Null if the events should be delivered 
+	 * right away.
+	 */
+	public void setEventQueue(ButtonEventQueue queue)
+	{
+		this.queue = queue;
+	}
+	
+	/**
+	 * @return The queue that collects the events of this handler. Null if the events are 
+	 * delivered right away.
+	 */
+	public ButtonEventQueue getEventQueue()
+	{
+		return this.queue;
+	}
+	
+	/**
+	 * Adds a listener that will be informed about the events in a background thread
+	 * @param listener The listener that is informed in a background thread
+	 * @param maxTasks How many events the listener may handle at once. Events that arrive 
+	 * while the listener is busy are skipped. If this is larger than 1, the listener may 
+	 * be called from multiple threads at the same time and must be thread safe.
+	 * @param completionListener The listener that is informed in the game's thread once an 
+	 * event has been handled (optional)
+	 * @param handlers The handlers that will handle the asynchronous listener (actorHandler 
+	 * is required for the completion listener to be informed)
+	 * @return The asynchronous listener that was added to this handler
+	 */
+	public AsynchronousButtonEventListener addAsynchronously(ButtonEventListener listener, 
+			int maxTasks, AsynchronousButtonEventListener.CompletionListener completionListener, 
+			HandlerRelay handlers)
+	{
+		AsynchronousButtonEventListener asynchronousListener = 
+				new AsynchronousButtonEventListener(listener, maxTasks, completionListener, 
+				handlers);
+		add(asynchronousListener);
+		
+		return asynchronousListener;
+	}
+	
+	/**
+	 * Checks whether any of the listeners may be interested in events of the given type. 
+	 * Events that no-one listens to don't need to be created at all.
+	 * @param type The type of a buttonEvent
+	 * @return Is there a listener that may select events of the given type
+	 */
+	public boolean hasListenersFor(ButtonEventType type)
+	{
+		return updateSnapshot().getBucket(type).length > 0;
+	}
+	
+	/**
+	 * Informs the listeners about an event right away
+	 * @param e The event the listeners are informed about
+	 */
+	void deliverEvent(ButtonEvent e)
+	{
+		// Only informs the listeners that can select events of this type
+		ButtonEventListener[] bucket = updateSnapshot().getBucket(e.getType());
+		for (ButtonEventListener listener : bucket)
+		{
+			if (listener.getButtonEventSelector().selects(e))
+				listener.onButtonEvent(e);
+		}
+	}
+	
+	/**
+	 * Informs the handler that the masks of one of its listeners' selectors have changed
+	 */
+	void onSelectorChanged()
+	{
+		synchronized (this.listenerLock)
+		{
+			this.selectorChanges ++;
+		}
+	}
+	
 	private void initialize()
 	{
-		this.lastEvent = null;
-		this.selector = new StrictEventSelector<>();
+		this.selector = new ButtonEventMaskSelector();
+		this.listenerLock = new Object();
+		this.collected = new ButtonEventListener[4];
+		this.collectedAmount = 0;
+		this.collecting = false;
+		this.snapshot = null;
+		this.selectorChanges = 0;
+		this.queue = null;
+	}
+	
+	private ListenerSnapshot updateSnapshot()
+	{
+		// The handler decides which listeners are alive and active. A new snapshot is only
+		// made if those listeners or their selectors have changed. Since the snapshots are
+		// immutable, concurrent deliveries can use them without synchronization.
+		synchronized (this.listenerLock)
+		{
+			this.collectedAmount = 0;
+			this.collecting = true;
+			try
+			{
+				handleObjects(true);
+			}
+			finally
+			{
+				this.collecting = false;
+			}
+			
+			int selectorChanges = this.selectorChanges;
+			ListenerSnapshot snapshot = this.snapshot;
+			if (snapshot == null || !snapshot.isBasedOn(this.collected, this.collectedAmount, 
+					selectorChanges))
+			{
+				snapshot = new ListenerSnapshot(this, Arrays.copyOf(this.collected, 
+						this.collectedAmount), selectorChanges);
+				this.snapshot = snapshot;
+			}
+			
+			// The buffer mustn't keep the removed listeners alive
+			Arrays.fill(this.collected, 0, this.collectedAmount, null);
+			return snapshot;
+		}
+	}
+	
+	
+	// SUBCLASSES	-------------------------
+	
+	private static class ListenerSnapshot
+	{
+		// ATTRIBUTES	---------------------
+		
+		private ButtonEventListener[] source;
+		private int selectorChanges;
+		private ButtonEventListener[][] buckets;
+		
+		
+		// CONSTRUCTOR	---------------------
+		
+		public ListenerSnapshot(ButtonEventHandler handler, ButtonEventListener[] listeners, 
+				int selectorChanges)
+		{
+			this.source = listeners;
+			this.selectorChanges = selectorChanges;
+			this.buckets = new ButtonEventListener[ButtonEventType.values().length][];
+			
+			// The selectors inform the handler about later changes in their masks
+			for (ButtonEventListener listener : listeners)
+			{
+				EventSelector<ButtonEvent> selector = listener.getButtonEventSelector();
+				if (selector instanceof ButtonEventMaskSelector)
+					((ButtonEventMaskSelector) selector).addObserver(handler);
+			}
+			
+			for (ButtonEventType type : ButtonEventType.values())
+			{
+				ButtonEventListener[] bucket = new ButtonEventListener[listeners.length];
+				int bucketSize = 0;
+				for (ButtonEventListener listener : listeners)
+				{
+					// Listeners with other kinds of selectors may select any event
+					EventSelector<ButtonEvent> selector = listener.getButtonEventSelector();
+					if (!(selector instanceof ButtonEventMaskSelector) || 
+							((ButtonEventMaskSelector) selector).canSelect(type))
+					{
+						bucket[bucketSize] = listener;
+						bucketSize ++;
+					}
+				}
+				
+				this.buckets[type.ordinal()] = Arrays.copyOf(bucket, bucketSize);
+			}
+		}
+		
+		
+		// OTHER METHODS	-----------------
+		
+		public boolean isBasedOn(ButtonEventListener[] listeners, int amount, 
+				int selectorChanges)
+		{
+			if (this.selectorChanges != selectorChanges || this.source.length != amount)
+				return false;
+			
+			for (int i = 0; i < amount; i++)
+			{
+				if (this.source[i] != listeners[i])
+					return false;
+			}
+			
+			return true;
+		}
+		
+		public ButtonEventListener[] getBucket(ButtonEventType type)
+		{
+			return this.buckets[type.ordinal()];
+		}
 	}
 }
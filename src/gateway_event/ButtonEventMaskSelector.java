@@ -0,0 +1,138 @@
+package gateway_event;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import gateway_event.ButtonEvent.ButtonEventType;
+import gateway_ui.AbstractButton.ButtonStatus;
+import genesis_event.StrictEventSelector;
+
+/**
+ * ButtonEventMaskSelector selects buttonEvents based on their features like a 
+ * StrictEventSelector would. The features are stored as bitmasks, so checking an event 
+ * only takes a couple of operations. ButtonEventHandlers group their listeners by the 
+ * selectors. The selector informs the handlers that use it whenever its masks change, so 
+ * that only those handlers regroup their listeners.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class ButtonEventMaskSelector extends
+		StrictEventSelector<ButtonEvent, ButtonEvent.Feature>
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final int STATUS_MASK = createStatusMask();
+	
+	private volatile int requiredMask, unacceptableMask;
+	// The handlers mustn't be kept alive by the selectors of their listeners
+	private Set<ButtonEventHandler> observers;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new selector that accepts all buttonEvents
+	 */
+	public ButtonEventMaskSelector()
+	{
+		this.requiredMask = 0;
+		this.unacceptableMask = 0;
+		this.observers = Collections.newSetFromMap(
+				new WeakHashMap<ButtonEventHandler, Boolean>());
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------
+	
+	@Override
+	public boolean selects(ButtonEvent e)
+	{
+		int mask = e.getFeatureMask();
+		return (mask & this.requiredMask) == this.requiredMask && 
+				(mask & this.unacceptableMask) == 0;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	@Override
+	public void addRequiredFeature(ButtonEvent.Feature feature)
+	{
+		super.addRequiredFeature(feature);
+		
+		synchronized (this)
+		{
+			int mask = this.requiredMask | ButtonEvent.getFeatureMask(feature);
+			if (mask == this.requiredMask)
+				return;
+			this.requiredMask = mask;
+		}
+		informObservers();
+	}
+	
+	/**
+	 * Checks whether the selector may select events of the given type
+	 * @param type The type of a buttonEvent
+	 * @return Could the selector select an event of the given type with some button status
+	 */
+	public boolean canSelect(ButtonEventType type)
+	{
+		int typeMask = ButtonEvent.getFeatureMask(type);
+		return (this.requiredMask & ~(typeMask | STATUS_MASK)) == 0 && 
+				(this.unacceptableMask & typeMask) == 0;
+	}
+	
+	@Override
+	public void addUnacceptableFeature(ButtonEvent.Feature feature)
+	{
+		super.addUnacceptableFeature(feature);
+		
+		synchronized (this)
+		{
+			int mask = this.unacceptableMask | ButtonEvent.getFeatureMask(feature);
+			if (mask == this.unacceptableMask)
+				return;
+			this.unacceptableMask = mask;
+		}
+		informObservers();
+	}
+	
+	/**
+	 * Makes the selector inform the handler whenever its masks change. The handler must 
+	 * start observing the selector before it reads the masks.
+	 * @param handler The handler that groups its listeners based on this selector
+	 */
+	void addObserver(ButtonEventHandler handler)
+	{
+		synchronized (this.observers)
+		{
+			this.observers.add(handler);
+		}
+	}
+	
+	private void informObservers()
+	{
+		ButtonEventHandler[] observers;
+		synchronized (this.observers)
+		{
+			observers = this.observers.toArray(new ButtonEventHandler[this.observers.size()]);
+		}
+		
+		for (ButtonEventHandler handler : observers)
+		{
+			handler.onSelectorChanged();
+		}
+	}
+	
+	private static int createStatusMask()
+	{
+		int mask = 0;
+		for (ButtonStatus status : ButtonStatus.values())
+		{
+			mask |= ButtonEvent.getFeatureMask(status);
+		}
+		
+		return mask;
+	}
+}
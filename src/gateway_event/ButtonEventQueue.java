@@ -0,0 +1,257 @@
+package gateway_event;
+
+import java.util.Arrays;
+
+import gateway_event.ButtonEvent.ButtonEventType;
+import genesis_event.Actor;
+import genesis_event.HandlerRelay;
+import genesis_util.SimpleHandled;
+
+/**
+ * ButtonEventQueue collects the events of buttonEventHandlers that use it and delivers them 
+ * all at once when it acts. This way slow listeners don't stall the thread that delivers the 
+ * mouse events. Status changes can be replaced by later ones, so only the last status change 
+ * of each button in each handler is delivered in a batch, and if too many status changes are 
+ * waiting, new ones are discarded. Presses and releases are always delivered. The events 
+ * are delivered in the order they were added. Events may be added from any thread.
+ * @author agent
+ * @since 18.10.2026
+ * @see ButtonEventHandler#setEventQueue(ButtonEventQueue)
+ */
+public class ButtonEventQueue extends SimpleHandled implements Actor
+{
+	// ATTRIBUTES	------------------------
+	
+	private Object queueLock;
+	private EventLane statusChanges, transitions;
+	private EventLane deliveredStatusChanges, deliveredTransitions;
+	private long nextSequence, droppedEvents;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new queue
+	 * @param capacity How many status changes can be queued between two deliveries. 
+	 * Presses and releases are always queued.
+	 * @param handlers The handlers that will handle the queue (actorHandler is required for 
+	 * the events to be delivered)
+	 */
+	public ButtonEventQueue(int capacity, HandlerRelay handlers)
+	{
+		super(handlers);
+		
+		// The events are gathered into one pair of lanes while the other pair is delivered
+		this.queueLock = new Object();
+		this.statusChanges = new EventLane(capacity, false);
+		this.transitions = new EventLane(16, true);
+		this.deliveredStatusChanges = new EventLane(capacity, false);
+		this.deliveredTransitions = new EventLane(16, true);
+		this.nextSequence = 0;
+		this.droppedEvents = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------
+	
+	@Override
+	public void act(double duration)
+	{
+		deliverEvents();
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return How many status changes have been discarded because the queue was full
+	 */
+	public long getDroppedEventAmount()
+	{
+		synchronized (this.queueLock)
+		{
+			return this.droppedEvents;
+		}
+	}
+	
+	/**
+	 * @return How many events are currently waiting for delivery
+	 */
+	public int getSize()
+	{
+		synchronized (this.queueLock)
+		{
+			return this.statusChanges.getSize() + this.transitions.getSize();
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Delivers all the events that have been queued so far. Events queued during the 
+	 * delivery are delivered the next time. This is called automatically when the queue 
+	 * acts.
+	 */
+	public synchronized void deliverEvents()
+	{
+		// The lanes are swapped so that new events can be queued during the delivery
+		EventLane statusChanges = this.deliveredStatusChanges;
+		EventLane transitions = this.deliveredTransitions;
+		synchronized (this.queueLock)
+		{
+			this.deliveredStatusChanges = this.statusChanges;
+			this.deliveredTransitions = this.transitions;
+			this.statusChanges = statusChanges;
+			this.transitions = transitions;
+		}
+		statusChanges = this.deliveredStatusChanges;
+		transitions = this.deliveredTransitions;
+		
+		// The lanes are merged back into the original order
+		int statusIndex = 0;
+		int transitionIndex = 0;
+		while (statusIndex < statusChanges.getSize() || 
+				transitionIndex < transitions.getSize())
+		{
+			if (transitionIndex >= transitions.getSize() || 
+					(statusIndex < statusChanges.getSize() && 
+					statusChanges.getSequence(statusIndex) < 
+					transitions.getSequence(transitionIndex)))
+			{
+				statusChanges.deliver(statusIndex);
+				statusIndex ++;
+			}
+			else
+			{
+				transitions.deliver(transitionIndex);
+				transitionIndex ++;
+			}
+		}
+		
+		statusChanges.clear();
+		transitions.clear();
+	}
+	
+	/**
+	 * Queues an event for delivery
+	 * @param handler The handler that will deliver the event
+	 * @param event The event that will be delivered
+	 * @return Was the event queued. False if the event was a status change and too many 
+	 * status changes were waiting already.
+	 */
+	boolean offer(ButtonEventHandler handler, ButtonEvent event)
+	{
+		synchronized (this.queueLock)
+		{
+			long sequence = this.nextSequence;
+			this.nextSequence ++;
+			
+			if (event.getType() != ButtonEventType.STATUSCHANGE)
+				return this.transitions.add(handler, event, sequence);
+			
+			// A status change replaces the earlier status change of the same button
+			this.statusChanges.removeStatusChange(handler, event);
+			if (this.statusChanges.add(handler, event, sequence))
+				return true;
+			
+			this.droppedEvents ++;
+			return false;
+		}
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class EventLane
+	{
+		// ATTRIBUTES	--------------------
+		
+		private ButtonEventHandler[] handlers;
+		private ButtonEvent[] events;
+		private long[] sequences;
+		private int size;
+		private boolean growing;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public EventLane(int capacity, boolean growing)
+		{
+			// The arrays are reused between the deliveries
+			this.handlers = new ButtonEventHandler[capacity];
+			this.events = new ButtonEvent[capacity];
+			this.sequences = new long[capacity];
+			this.size = 0;
+			this.growing = growing;
+		}
+		
+		
+		// GETTERS & SETTERS	------------
+		
+		public int getSize()
+		{
+			return this.size;
+		}
+		
+		public long getSequence(int index)
+		{
+			return this.sequences[index];
+		}
+		
+		
+		// OTHER METHODS	----------------
+		
+		public boolean add(ButtonEventHandler handler, ButtonEvent event, long sequence)
+		{
+			if (this.size == this.events.length)
+			{
+				if (!this.growing)
+					return false;
+				
+				int newCapacity = Math.max(16, this.size * 2);
+				this.handlers = Arrays.copyOf(this.handlers, newCapacity);
+				this.events = Arrays.copyOf(this.events, newCapacity);
+				this.sequences = Arrays.copyOf(this.sequences, newCapacity);
+			}
+			
+			this.handlers[this.size] = handler;
+			this.events[this.size] = event;
+			this.sequences[this.size] = sequence;
+			this.size ++;
+			return true;
+		}
+		
+		public void removeStatusChange(ButtonEventHandler handler, ButtonEvent event)
+		{
+			for (int i = 0; i < this.size; i++)
+			{
+				if (this.handlers[i] == handler && 
+						this.events[i].getSource() == event.getSource())
+				{
+					// The later events keep their order
+					int moved = this.size - i - 1;
+					System.arraycopy(this.handlers, i + 1, this.handlers, i, moved);
+					System.arraycopy(this.events, i + 1, this.events, i, moved);
+					System.arraycopy(this.sequences, i + 1, this.sequences, i, moved);
+					this.size --;
+					this.handlers[this.size] = null;
+					this.events[this.size] = null;
+					return;
+				}
+			}
+		}
+		
+		public void deliver(int index)
+		{
+			this.handlers[index].deliverEvent(this.events[index]);
+		}
+		
+		public void clear()
+		{
+			Arrays.fill(this.handlers, 0, this.size, null);
+			Arrays.fill(this.events, 0, this.size, null);
+			this.size = 0;
+		}
+	}
+}
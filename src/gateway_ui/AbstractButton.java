@@ -2,6 +2,7 @@ package gateway_ui;
 
 import gateway_event.ButtonEvent;
 import gateway_event.ButtonEventHandler;
+import gateway_event.ButtonEvent.ButtonEventType;
 import genesis_event.EventSelector;
 import genesis_event.GenesisHandlerType;
 import genesis_event.Handled;
@@ -15,7 +16,6 @@ import genesis_event.MouseEvent.MouseButtonEventType;
 import genesis_event.MouseEvent.MouseEventType;
 import genesis_event.MouseEvent.MouseMovementEventType;
 import genesis_util.DependentStateOperator;
-import genesis_util.HelpMath;
 import genesis_util.SimpleHandled;
 import genesis_util.StateOperator;
 import genesis_util.Transformation;
@@ -34,8 +34,11 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 	private EventSelector<MouseEvent> selector;
 	private boolean hovering, clicked;
 	private ButtonEventHandler listenerHandler;
+	private ButtonEvent[] events;
 	private ButtonStatus status;
 	private Transformation transformation;
+	private InverseTransformation inverseTransformation;
+	private UIComponentIndex index;
 	private int drawingDepth;
 	
 	
@@ -52,9 +55,13 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 		super(handlers);
 		
 		this.transformation = new Transformation(position);
+		this.inverseTransformation = new InverseTransformation(this.transformation);
+		this.index = null;
 		this.hovering = false;
 		this.clicked = false;
-		this.listenerHandler = new ButtonEventHandler(false);
+		this.listenerHandler = null;
+		this.events = new ButtonEvent[ButtonEventType.values().length *
+				ButtonStatus.values().length];
 		this.status = ButtonStatus.DEFAULT;
 		
 		// The object is interested in a) Mouse enter & exit, b) left mouse press & release
@@ -90,8 +97,8 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 	@Override
 	public boolean isInAreaOfInterest(Vector3D position)
 	{
-		return HelpMath.pointIsInRange(getTransformation().inverseTransform(position).plus(
-				getOrigin()), Vector3D.zeroVector(), getDimensions());
+		// Indexed buttons receive their mouse events through a mouse router instead
+		return this.index == null && containsPoint(position.getFirst(), position.getSecond());
 	}
 
 	@Override
@@ -103,35 +110,21 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 	@Override
 	public void onMouseEvent(MouseEvent event)
 	{
+		if (this.index != null)
+			return;
+		
 		// On mouse enter, goes to hover, on mouse exit, goes out
 		if (event.getType() == MouseEventType.MOVEMENT)
 		{
 			if (event.getMovementEventType() == MouseMovementEventType.ENTER)
-				this.hovering = true;
+				onMouseEnter();
 			else
-				this.hovering = false;
+				onMouseExit();
 		}
+		else if (event.getButtonEventType() == MouseButtonEventType.RELEASED)
+			onMouseRelease();
 		else
-		{
-			// Button can be released anywhere
-			if (event.getButtonEventType() == MouseButtonEventType.RELEASED)
-			{
-				if (this.clicked)
-				{
-					this.clicked = false;
-					getListenerHandler().onButtonEvent(
-							ButtonEvent.createButtonReleaseEvent(this));
-				}
-			}
-			// But clicked only on hover over
-			else if (this.hovering)
-			{
-				this.clicked = true;
-				getListenerHandler().onButtonEvent(ButtonEvent.createButtonPressEvent(this));
-			}
-		}
-		
-		updateStatus();
+			onMousePress();
 	}
 
 	@Override
@@ -144,6 +137,10 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 	public void setTrasformation(Transformation t)
 	{
 		this.transformation = t;
+		this.inverseTransformation = new InverseTransformation(t);
+		
+		if (this.index != null)
+			this.index.update(this);
 	}
 	
 	@Override
@@ -161,6 +158,10 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 	 */
 	public ButtonEventHandler getListenerHandler()
 	{
+		// The handler is only created once someone needs it
+		if (this.listenerHandler == null)
+			this.listenerHandler = new ButtonEventHandler(false);
+		
 		return this.listenerHandler;
 	}
 	
@@ -194,6 +195,106 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 		setIsDeadOperator(new DependentStateOperator(other.getIsDeadStateOperator()));
 	}
 	
+	/**
+	 * Checks whether the given point is inside the button's area. The check doesn't create 
+	 * any new objects.
+	 * @param x The x-coordinate of a point on the screen
+	 * @param y The y-coordinate of a point on the screen
+	 * @return Is the point inside the button
+	 */
+	public boolean containsPoint(double x, double y)
+	{
+		Vector3D origin = getOrigin();
+		Vector3D dimensions = getDimensions();
+		double relativeX = getRelativeX(x, y) + origin.getFirst();
+		double relativeY = getRelativeY(x, y) + origin.getSecond();
+		
+		return relativeX >= 0 && relativeX <= dimensions.getFirst() && relativeY >= 0 && 
+				relativeY <= dimensions.getSecond();
+	}
+	
+	/**
+	 * Transforms a point to the button's relative space using a precalculated inverse 
+	 * transformation
+	 * @param x The x-coordinate of a point on the screen
+	 * @param y The y-coordinate of a point on the screen
+	 * @return The x-coordinate of the point relative to the button's origin
+	 */
+	protected double getRelativeX(double x, double y)
+	{
+		return this.inverseTransformation.transformX(x, y);
+	}
+	
+	/**
+	 * Transforms a point to the button's relative space using a precalculated inverse 
+	 * transformation
+	 * @param x The x-coordinate of a point on the screen
+	 * @param y The y-coordinate of a point on the screen
+	 * @return The y-coordinate of the point relative to the button's origin
+	 */
+	protected double getRelativeY(double x, double y)
+	{
+		return this.inverseTransformation.transformY(x, y);
+	}
+	
+	/**
+	 * Changes the index the button keeps up to date. Indexed buttons don't react to the 
+	 * mouse events they receive directly.
+	 * @param index The index the button is in. Null if the button is not indexed.
+	 */
+	void setComponentIndex(UIComponentIndex index)
+	{
+		this.index = index;
+	}
+	
+	/**
+	 * Informs the button that the mouse entered its area
+	 */
+	void onMouseEnter()
+	{
+		this.hovering = true;
+		updateStatus();
+	}
+	
+	/**
+	 * Informs the button that the mouse exited its area
+	 */
+	void onMouseExit()
+	{
+		this.hovering = false;
+		updateStatus();
+	}
+	
+	/**
+	 * Informs the button that the left mouse button was pressed
+	 */
+	void onMousePress()
+	{
+		// The button is only clicked on hover over
+		if (this.hovering)
+		{
+			this.clicked = true;
+			informListeners(ButtonEventType.PRESSED);
+		}
+		
+		updateStatus();
+	}
+	
+	/**
+	 * Informs the button that the left mouse button was released
+	 */
+	void onMouseRelease()
+	{
+		// But it can be released anywhere
+		if (this.clicked)
+		{
+			this.clicked = false;
+			informListeners(ButtonEventType.RELEASED);
+		}
+		
+		updateStatus();
+	}
+	
 	private void updateStatus()
 	{
 		ButtonStatus style = ButtonStatus.DEFAULT;
@@ -207,8 +308,33 @@ public abstract class AbstractButton extends SimpleHandled implements UIComponen
 		{
 			changeVisualStyle(style);
 			this.status = style;
-			getListenerHandler().onButtonEvent(ButtonEvent.createButtonStatusChangeEvent(this));
+			DirtyRegionTracker.invalidate(this);
+			informListeners(ButtonEventType.STATUSCHANGE);
+		}
+	}
+	
+	private void informListeners(ButtonEventType type)
+	{
+		// The events are only created when someone may be interested in them
+		if (this.listenerHandler != null && this.listenerHandler.hasListenersFor(type))
+			this.listenerHandler.onButtonEvent(getEvent(type));
+	}
+	
+	private ButtonEvent getEvent(ButtonEventType type)
+	{
+		// The events are immutable, so each combination is only created once per button
+		int index = ButtonEvent.getFeatureIndex(type, getCurrentStatus());
+		if (this.events[index] == null)
+		{
+			if (type == ButtonEventType.PRESSED)
+				this.events[index] = ButtonEvent.createButtonPressEvent(this);
+			else if (type == ButtonEventType.RELEASED)
+				this.events[index] = ButtonEvent.createButtonReleaseEvent(this);
+			else
+				this.events[index] = ButtonEvent.createButtonStatusChangeEvent(this);
 		}
+		
+		return this.events[index];
 	}
 	
 	
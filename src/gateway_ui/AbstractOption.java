@@ -168,8 +168,14 @@ public abstract class AbstractOption<T> extends SimpleHandled implements UICompo
 	 */
 	public boolean setCurrentIndex(int newIndex)
 	{
+		int lastIndex = this.currentIndex;
 		this.currentIndex = newIndex;
-		return !checkIndex();
+		boolean success = !checkIndex();
+		
+		if (this.currentIndex != lastIndex)
+			DirtyRegionTracker.invalidate(this);
+		
+		return success;
 	}
 	
 	/**
@@ -33,7 +33,7 @@ public abstract class AbstractSpriteButton<SpriteDrawerType extends SpriteDrawer
 		
 		if (drawer != null)
 			drawer.setMaster(this);
-		this.drawer = new DependentSpriteDrawer<>(this, initialDepth, drawer, handlers);
+		this.drawer = new CachedSpriteDrawer<>(this, initialDepth, drawer, handlers);
 	}
 	
 	
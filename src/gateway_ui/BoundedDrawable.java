@@ -0,0 +1,21 @@
+package gateway_ui;
+
+import java.awt.geom.Rectangle2D;
+
+import genesis_event.Drawable;
+
+/**
+ * BoundedDrawables know the area they draw in. Drawers that depend on a UIComponent may 
+ * draw outside the component's area, in which case the area is used when the drawer is 
+ * drawn through a {@link BufferedDrawableHandler}.
+ * @author agent
+ * @since 18.10.2026
+ */
+public interface BoundedDrawable extends Drawable
+{
+	/**
+	 * @return The area the object draws in, relative to the component it depends from 
+	 * (before the component's transformation is applied). Null if the area is unknown.
+	 */
+	public Rectangle2D getDrawnArea();
+}
@@ -0,0 +1,286 @@
+package gateway_ui;
+
+import java.awt.AlphaComposite;
+import java.awt.Composite;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.Area;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import genesis_event.Drawable;
+import genesis_event.DrawableHandler;
+import genesis_event.HandlerRelay;
+import genesis_util.ConnectedHandled;
+import vision_drawing.AbstractDependentDrawer;
+import vision_drawing.DependentSpriteDrawer;
+import vision_sprite.Sprite;
+import vision_sprite.SpriteDrawer;
+
+/**
+ * BufferedDrawableHandler draws its objects into a persistent image and only draws the 
+ * areas that have changed again. Mostly static user interfaces cost very little to draw this 
+ * way. The areas of the drawn UIComponents (and the objects that are connected to them) are 
+ * tracked automatically when they move, appear or disappear. Connected drawers that know 
+ * their own area ({@link BoundedDrawable}s) are tracked in that area, since they may draw 
+ * outside their component. The areas of sprite drawers are drawn again whenever the shown 
+ * sprite frame changes, so animations keep playing. Other changes in the appearance of the 
+ * components are reported through {@link DirtyRegionTracker#invalidate(UIComponent)}. If 
+ * other drawables appear or disappear, the whole screen is drawn again. Changes in their 
+ * appearance need to be reported to the handler's tracker.<br> 
+ * The objects are gone through once each frame without drawing them. Only the objects 
+ * that overlap the dirty areas are then drawn, so a static user interface only costs a 
+ * single image copy.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class BufferedDrawableHandler extends DrawableHandler
+{
+	// ATTRIBUTES	------------------------
+	
+	private DirtyRegionTracker tracker;
+	private BufferedImage buffer;
+	private Rectangle screenArea;
+	private Map<Drawable, Integer> otherDrawables;
+	private Map<Drawable, SpriteFrame> spriteFrames;
+	private List<Drawable> visibleDrawables;
+	private List<Rectangle2D> visibleBounds;
+	private boolean othersChanged;
+	private int frame;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new handler
+	 * @param autoDeath Will the handler die once it runs out of objects to draw
+	 * @param width The width of the drawn area
+	 * @param height The height of the drawn area
+	 * @param superHandlers The handlers that will handle this handler
+	 */
+	public BufferedDrawableHandler(boolean autoDeath, int width, int height, 
+			HandlerRelay superHandlers)
+	{
+		super(autoDeath, superHandlers);
+		
+		this.tracker = new DirtyRegionTracker();
+		this.screenArea = new Rectangle(0, 0, width, height);
+		this.buffer = null;
+		this.otherDrawables = new IdentityHashMap<>();
+		this.spriteFrames = new IdentityHashMap<>();
+		this.visibleDrawables = new ArrayList<>();
+		this.visibleBounds = new ArrayList<>();
+		this.frame = 0;
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------
+	
+	@Override
+	public void drawSelf(Graphics2D g2d)
+	{
+		// First finds out what is visible and what has moved. DrawableHandler's drawSelf
+		// calls handleObject for each visible object in drawing order and doesn't draw
+		// anything itself, so the objects are collected here without drawing them.
+		this.frame ++;
+		this.othersChanged = false;
+		this.visibleDrawables.clear();
+		this.visibleBounds.clear();
+		super.drawSelf(g2d);
+		this.tracker.removeHiddenComponents(this.frame);
+		removeHiddenOthers();
+		removeHiddenSpriteFrames();
+		if (this.othersChanged)
+			this.tracker.invalidateAll();
+		
+		if (this.buffer == null)
+		{
+			this.buffer = new BufferedImage(this.screenArea.width, this.screenArea.height, 
+					BufferedImage.TYPE_INT_ARGB_PRE);
+			this.tracker.invalidateAll();
+		}
+		
+		// Only the dirty areas are drawn again
+		List<Rectangle> regions = this.tracker.takeDirtyRegions(this.screenArea);
+		if (!regions.isEmpty())
+		{
+			Graphics2D bufferGraphics = this.buffer.createGraphics();
+			bufferGraphics.setRenderingHints(g2d.getRenderingHints());
+			
+			Composite lastComposite = bufferGraphics.getComposite();
+			bufferGraphics.setComposite(AlphaComposite.Clear);
+			Area clip = new Area();
+			for (Rectangle region : regions)
+			{
+				bufferGraphics.fillRect(region.x, region.y, region.width, region.height);
+				clip.add(new Area(region));
+			}
+			bufferGraphics.setComposite(lastComposite);
+			
+			// Objects outside the dirty areas are skipped. The areas of objects that are not
+			// connected to components are unknown, so they are always drawn.
+			bufferGraphics.setClip(clip);
+			for (int i = 0; i < this.visibleDrawables.size(); i++)
+			{
+				Rectangle2D bounds = this.visibleBounds.get(i);
+				if (bounds == null || DirtyRegionTracker.intersects(bounds, regions))
+					this.visibleDrawables.get(i).drawSelf(bufferGraphics);
+			}
+			bufferGraphics.dispose();
+		}
+		
+		g2d.drawImage(this.buffer, 0, 0, null);
+	}
+	
+	@Override
+	protected boolean handleObject(Drawable h)
+	{
+		// Only visible objects are handled. Instead of drawing the object, only its area is
+		// updated here. The object is drawn in drawSelf if its area is dirty.
+		Rectangle2D bounds = null;
+		UIComponent component = getComponent(h);
+		if (component != null)
+		{
+			bounds = this.tracker.update(component, this.frame);
+			
+			// Drawers that know their area may draw outside their component
+			if (h instanceof BoundedDrawable)
+			{
+				Rectangle2D area = ((BoundedDrawable) h).getDrawnArea();
+				if (area != null)
+					bounds = this.tracker.updateArea(h, component, 
+							UIComponentIndex.getBoundingBox(component.getTransformation(), 
+							area), this.frame);
+			}
+			
+			// Animated sprites are drawn again when their frame changes
+			SpriteDrawer spriteDrawer = getSpriteDrawer(h);
+			if (spriteDrawer != null)
+				updateSpriteFrame(h, spriteDrawer, bounds);
+		}
+		else if (this.otherDrawables.put(h, this.frame) == null)
+			this.othersChanged = true;
+		
+		this.visibleDrawables.add(h);
+		this.visibleBounds.add(bounds);
+		
+		return true;
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return The tracker that keeps track of the areas drawn by this handler. Changes in 
+	 * drawables that aren't UIComponents can be reported here.
+	 */
+	public DirtyRegionTracker getDirtyRegionTracker()
+	{
+		return this.tracker;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	private void removeHiddenOthers()
+	{
+		Iterator<Integer> iterator = this.otherDrawables.values().iterator();
+		while (iterator.hasNext())
+		{
+			if (iterator.next() != this.frame)
+			{
+				iterator.remove();
+				this.othersChanged = true;
+			}
+		}
+	}
+	
+	private void updateSpriteFrame(Drawable drawable, SpriteDrawer spriteDrawer, 
+			Rectangle2D bounds)
+	{
+		SpriteFrame spriteFrame = this.spriteFrames.get(drawable);
+		if (spriteFrame == null)
+		{
+			spriteFrame = new SpriteFrame();
+			this.spriteFrames.put(drawable, spriteFrame);
+		}
+		
+		if (spriteFrame.update(spriteDrawer.getSprite(), spriteDrawer.getImageIndex(), this.frame))
+			this.tracker.addDirtyRegion(bounds);
+	}
+	
+	private void removeHiddenSpriteFrames()
+	{
+		Iterator<SpriteFrame> iterator = this.spriteFrames.values().iterator();
+		while (iterator.hasNext())
+		{
+			if (iterator.next().getLastFrame() != this.frame)
+				iterator.remove();
+		}
+	}
+	
+	private static SpriteDrawer getSpriteDrawer(Drawable drawable)
+	{
+		if (drawable instanceof DependentSpriteDrawer<?, ?>)
+			return ((DependentSpriteDrawer<?, ?>) drawable).getSpriteDrawer();
+		if (drawable instanceof SpriteUIComponentBackground)
+			return ((SpriteUIComponentBackground) drawable).getSpriteDrawer();
+		return null;
+	}
+	
+	private static UIComponent getComponent(Drawable drawable)
+	{
+		if (drawable instanceof UIComponent)
+			return (UIComponent) drawable;
+		
+		// Backgrounds and other connected drawers are drawn in the area of their master
+		Object master = null;
+		if (drawable instanceof ConnectedHandled<?>)
+			master = ((ConnectedHandled<?>) drawable).getMaster();
+		else if (drawable instanceof AbstractDependentDrawer<?>)
+			master = ((AbstractDependentDrawer<?>) drawable).getMaster();
+		
+		if (master instanceof UIComponent)
+			return (UIComponent) master;
+		return null;
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class SpriteFrame
+	{
+		// ATTRIBUTES	--------------------
+		
+		private Sprite sprite;
+		private int imageIndex, lastFrame;
+		
+		
+		// GETTERS & SETTERS	------------
+		
+		public int getLastFrame()
+		{
+			return this.lastFrame;
+		}
+		
+		
+		// OTHER METHODS	----------------
+		
+		public boolean update(Sprite sprite, int imageIndex, int frame)
+		{
+			// The first update doesn't count as a change since new objects are drawn anyway
+			boolean changed = this.sprite != null && (sprite != this.sprite || 
+					imageIndex != this.imageIndex);
+			this.sprite = sprite;
+			this.imageIndex = imageIndex;
+			this.lastFrame = frame;
+			
+			return changed;
+		}
+	}
+}
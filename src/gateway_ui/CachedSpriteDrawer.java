@@ -0,0 +1,92 @@
+package gateway_ui;
+
+import java.awt.Graphics2D;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import genesis_event.Handled;
+import genesis_event.HandlerRelay;
+import genesis_util.Transformable;
+import vision_drawing.DependentSpriteDrawer;
+import vision_sprite.SpriteDrawer;
+
+/**
+ * This dependent sprite drawer draws the sprite frames through the scaledSpriteCache so 
+ * that the sprite doesn't need to be scaled each time it is drawn. SpriteDrawers that 
+ * override {@link SpriteDrawer#drawSprite(Graphics2D)} outside the engine draw the sprite 
+ * themselves instead.
+ * @author agent
+ * @since 18.10.2026
+ * @param <T> The type of object using this drawer
+ * @param <SpriteDrawerType> The type of spriteDrawer used for keeping track of the sprite
+ */
+class CachedSpriteDrawer<T extends Transformable & Handled, 
+		SpriteDrawerType extends SpriteDrawer> extends DependentSpriteDrawer<T, SpriteDrawerType>
+{
+	// ATTRIBUTES	-------------------
+	
+	private static final Map<Class<?>, Boolean> customDrawers = new ConcurrentHashMap<>();
+	
+	private ScaledSpriteCache.DrawState drawState;
+	
+	
+	// CONSTRUCTOR	-------------------
+	
+	/**
+	 * Creates a new drawer
+	 * @param user The object that uses this drawer
+	 * @param initialDepth The initial drawing depth of the drawer
+	 * @param drawer The spriteDrawer that keeps track of the sprite and its animation
+	 * @param handlers The handlers that will handle the drawer
+	 */
+	public CachedSpriteDrawer(T user, int initialDepth, SpriteDrawerType drawer, 
+			HandlerRelay handlers)
+	{
+		super(user, initialDepth, drawer, handlers);
+		
+		this.drawState = new ScaledSpriteCache.DrawState();
+	}
+	
+	
+	// IMPLEMENTED METHODS	------------
+	
+	@Override
+	protected void drawSelfBasic(Graphics2D g2d)
+	{
+		SpriteDrawer drawer = getSpriteDrawer();
+		if (drawer == null)
+			return;
+		
+		if (drawsItself(drawer))
+			drawer.drawSprite(g2d);
+		else
+			ScaledSpriteCache.drawSprite(g2d, drawer.getSprite(), drawer.getImageIndex(), 
+					drawer.getSprite().getDimensions(), drawer.getOrigin(), this.drawState);
+	}
+	
+	
+	// OTHER METHODS	----------------
+	
+	private static boolean drawsItself(SpriteDrawer drawer)
+	{
+		Class<?> drawerClass = drawer.getClass();
+		Boolean drawsItself = customDrawers.get(drawerClass);
+		if (drawsItself == null)
+		{
+			// The engine's own drawers draw the frame the same way the cache does
+			try
+			{
+				drawsItself = drawerClass.getMethod("drawSprite", 
+						Graphics2D.class).getDeclaringClass().getPackage() != 
+						SpriteDrawer.class.getPackage();
+			}
+			catch (NoSuchMethodException e)
+			{
+				drawsItself = false;
+			}
+			customDrawers.put(drawerClass, drawsItself);
+		}
+		
+		return drawsItself;
+	}
+}
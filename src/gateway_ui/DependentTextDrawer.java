@@ -1,6 +1,7 @@
 package gateway_ui;
 
 import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
 
 import genesis_event.Handled;
 import genesis_event.HandlerRelay;
@@ -14,6 +15,7 @@ import vision_drawing.AbstractDependentDrawer;
  * @param <T> The type of object using this drawer
  */
 public class DependentTextDrawer<T extends Transformable & Handled> extends AbstractDependentDrawer<T>
+		implements BoundedDrawable
 {
 	// ATTRIBUTES	-------------------
 	
@@ -35,18 +37,45 @@ public class DependentTextDrawer<T extends Transformable & Handled> extends Abst
 		super(user, initialDepth, handlers);
 		
 		this.drawer = textDrawer;
+		
+		// Changes in the text invalidate the user's area
+		if (textDrawer != null && user instanceof UIComponent)
+		{
+			final UIComponent component = (UIComponent) user;
+			textDrawer.addInvalidationListener(new InvalidationListener()
+			{
+				@Override
+				public void onInvalidated()
+				{
+					DirtyRegionTracker.invalidate(component);
+				}
+			});
+		}
 	}
 	
 	
 	// IMPLEMENTED METHODS	------------
-
+	
 	@Override
 	protected void drawSelfBasic(Graphics2D g2d)
 	{
 		if (this.drawer != null)
 			this.drawer.drawText(g2d);
 	}
-
+	
+	
+	@Override
+	public Rectangle2D getDrawnArea()
+	{
+		if (this.drawer == null)
+			return null;
+		
+		// The area is checked each frame even when the text isn't drawn again, so finished
+		// background layouts are reported here
+		this.drawer.informOfFinishedLayout();
+		return this.drawer.getDrawnArea();
+	}
+	
 	
 	// GETTERS & SETTERS	-------------
 	
@@ -57,4 +86,16 @@ public class DependentTextDrawer<T extends Transformable & Handled> extends Abst
 	{
 		return this.drawer;
 	}
+	
+	/**
+	 * Changes whether the text should be rendered into a cached image instead of being 
+	 * drawn again each time
+	 * @param buffered Should the text be drawn through a cached image
+	 * @see TextDrawer#setBuffered(boolean)
+	 */
+	public void setBuffered(boolean buffered)
+	{
+		if (this.drawer != null)
+			this.drawer.setBuffered(buffered);
+	}
 }
@@ -0,0 +1,467 @@
+package gateway_ui;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * DirtyRegionTracker keeps track of the screen areas that need to be drawn again. The areas 
+ * of the tracked components are marked dirty when the components move, appear, disappear 
+ * or report a change through {@link #invalidate(UIComponent)}. Overlapping areas are merged 
+ * together.
+ * @author agent
+ * @since 18.10.2026
+ * @see BufferedDrawableHandler
+ */
+public class DirtyRegionTracker
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final int MAX_REGIONS = 8;
+	// Antialiased edges and line strokes may reach slightly outside the component
+	private static final int PADDING = 2;
+	private static final Set<DirtyRegionTracker> trackers = Collections.newSetFromMap(
+			new WeakHashMap<DirtyRegionTracker, Boolean>());
+	private static final Map<UIComponent, List<InvalidationListener>> componentListeners = 
+			new WeakHashMap<>();
+	
+	private Map<UIComponent, TrackedComponent> components;
+	private Map<Object, TrackedArea> areas;
+	private List<Rectangle> regions;
+	private boolean allDirty;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new tracker. Initially the whole screen is dirty.
+	 */
+	public DirtyRegionTracker()
+	{
+		this.components = new IdentityHashMap<>();
+		this.areas = new IdentityHashMap<>();
+		this.regions = new ArrayList<>();
+		this.allDirty = true;
+		
+		synchronized (trackers)
+		{
+			trackers.add(this);
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Informs the trackers and the component's invalidation listeners that the component's 
+	 * appearance has changed and that its area should be drawn again
+	 * @param component The component that changed
+	 */
+	public static void invalidate(UIComponent component)
+	{
+		InvalidationListener[] listeners = null;
+		synchronized (componentListeners)
+		{
+			List<InvalidationListener> list = componentListeners.get(component);
+			if (list != null)
+				listeners = list.toArray(new InvalidationListener[list.size()]);
+		}
+		
+		if (listeners != null)
+		{
+			for (InvalidationListener listener : listeners)
+			{
+				listener.onInvalidated();
+			}
+		}
+		
+		DirtyRegionTracker[] currentTrackers;
+		synchronized (trackers)
+		{
+			currentTrackers = trackers.toArray(new DirtyRegionTracker[trackers.size()]);
+		}
+		
+		for (DirtyRegionTracker tracker : currentTrackers)
+		{
+			tracker.invalidateComponent(component);
+		}
+	}
+	
+	/**
+	 * Adds a listener that will be informed whenever the component is invalidated
+	 * @param component The component the listener listens to
+	 * @param listener The listener that will be informed
+	 * @see #invalidate(UIComponent)
+	 */
+	public static void addInvalidationListener(UIComponent component, 
+			InvalidationListener listener)
+	{
+		synchronized (componentListeners)
+		{
+			List<InvalidationListener> list = componentListeners.get(component);
+			if (list == null)
+			{
+				list = new ArrayList<>();
+				componentListeners.put(component, list);
+			}
+			list.add(listener);
+		}
+	}
+	
+	/**
+	 * Removes a listener from the component's invalidation listeners
+	 * @param component The component the listener listened to
+	 * @param listener The listener that will no longer be informed
+	 */
+	public static void removeInvalidationListener(UIComponent component, 
+			InvalidationListener listener)
+	{
+		synchronized (componentListeners)
+		{
+			List<InvalidationListener> list = componentListeners.get(component);
+			if (list != null)
+			{
+				list.remove(listener);
+				if (list.isEmpty())
+					componentListeners.remove(component);
+			}
+		}
+	}
+	
+	/**
+	 * Marks an area of the screen dirty
+	 * @param region The area that needs to be drawn again
+	 */
+	public synchronized void addDirtyRegion(Rectangle2D region)
+	{
+		if (this.allDirty || region.isEmpty())
+			return;
+		
+		Rectangle newRegion = region.getBounds();
+		newRegion.grow(PADDING, PADDING);
+		
+		// Merges the regions that overlap with the new region
+		boolean merged = true;
+		while (merged)
+		{
+			merged = false;
+			Iterator<Rectangle> iterator = this.regions.iterator();
+			while (iterator.hasNext())
+			{
+				Rectangle existing = iterator.next();
+				if (existing.intersects(newRegion))
+				{
+					newRegion.add(existing);
+					iterator.remove();
+					merged = true;
+				}
+			}
+		}
+		this.regions.add(newRegion);
+		
+		// Having too many small regions is slower than drawing one larger area
+		if (this.regions.size() > MAX_REGIONS)
+		{
+			Rectangle union = this.regions.get(0);
+			for (int i = 1; i < this.regions.size(); i++)
+			{
+				union.add(this.regions.get(i));
+			}
+			this.regions.clear();
+			this.regions.add(union);
+		}
+	}
+	
+	/**
+	 * Marks the whole screen dirty
+	 */
+	public synchronized void invalidateAll()
+	{
+		this.allDirty = true;
+		this.regions.clear();
+	}
+	
+	/**
+	 * @return Is any part of the screen dirty
+	 */
+	public synchronized boolean isDirty()
+	{
+		return this.allDirty || !this.regions.isEmpty();
+	}
+	
+	/**
+	 * Returns the dirty areas and marks them clean
+	 * @param screenArea The area of the whole screen
+	 * @return The dirty areas inside the screen area. Empty if nothing needs to be drawn 
+	 * again.
+	 */
+	synchronized List<Rectangle> takeDirtyRegions(Rectangle screenArea)
+	{
+		List<Rectangle> dirty = new ArrayList<>();
+		if (this.allDirty)
+			dirty.add(new Rectangle(screenArea));
+		else
+		{
+			for (Rectangle region : this.regions)
+			{
+				Rectangle visiblePart = region.intersection(screenArea);
+				if (!visiblePart.isEmpty())
+					dirty.add(visiblePart);
+			}
+		}
+		
+		this.allDirty = false;
+		this.regions.clear();
+		return dirty;
+	}
+	
+	/**
+	 * Checks whether an area overlaps any of the dirty regions. The edges drawn around 
+	 * the area are taken into account.
+	 * @param bounds The area of an object
+	 * @param regions The dirty regions
+	 * @return Does the area overlap any of the regions
+	 * @see #takeDirtyRegions(Rectangle)
+	 */
+	static boolean intersects(Rectangle2D bounds, List<Rectangle> regions)
+	{
+		for (Rectangle region : regions)
+		{
+			if (region.intersects(bounds.getX() - PADDING, bounds.getY() - PADDING, 
+					bounds.getWidth() + 2 * PADDING, bounds.getHeight() + 2 * PADDING))
+				return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Starts tracking the component if it isn't tracked yet and marks its area dirty if it 
+	 * has moved or changed size since the last update
+	 * @param component The component that is visible on the screen
+	 * @param frame The index of the current frame
+	 * @return The current area of the component
+	 */
+	synchronized Rectangle2D update(UIComponent component, int frame)
+	{
+		TrackedComponent tracked = this.components.get(component);
+		if (tracked == null)
+		{
+			tracked = new TrackedComponent(component);
+			this.components.put(component, tracked);
+			addDirtyRegion(tracked.getBounds());
+		}
+		else if (tracked.hasMoved(component))
+		{
+			addDirtyRegion(tracked.getBounds());
+			tracked.update(component);
+			addDirtyRegion(tracked.getBounds());
+		}
+		
+		tracked.setLastFrame(frame);
+		return tracked.getBounds();
+	}
+	
+	/**
+	 * Tracks an area that is drawn by an object that depends from a component. The area is 
+	 * marked dirty whenever it changes, disappears or the component is invalidated.
+	 * @param drawer The object that draws in the area
+	 * @param component The component the drawer depends from
+	 * @param bounds The current area of the drawer on the screen
+	 * @param frame The index of the current frame
+	 * @return The current area of the drawer
+	 */
+	synchronized Rectangle2D updateArea(Object drawer, UIComponent component, 
+			Rectangle2D bounds, int frame)
+	{
+		TrackedArea tracked = this.areas.get(drawer);
+		if (tracked == null)
+		{
+			tracked = new TrackedArea(component, bounds);
+			this.areas.put(drawer, tracked);
+			addDirtyRegion(bounds);
+		}
+		else if (!tracked.getBounds().equals(bounds))
+		{
+			addDirtyRegion(tracked.getBounds());
+			tracked.setBounds(bounds);
+			addDirtyRegion(bounds);
+		}
+		
+		tracked.setLastFrame(frame);
+		return bounds;
+	}
+	
+	/**
+	 * Stops tracking the components that weren't updated during the given frame and marks 
+	 * their last areas dirty
+	 * @param frame The index of the current frame
+	 */
+	synchronized void removeHiddenComponents(int frame)
+	{
+		Iterator<TrackedComponent> iterator = this.components.values().iterator();
+		while (iterator.hasNext())
+		{
+			TrackedComponent tracked = iterator.next();
+			if (tracked.getLastFrame() != frame)
+			{
+				addDirtyRegion(tracked.getBounds());
+				iterator.remove();
+			}
+		}
+		
+		Iterator<TrackedArea> areaIterator = this.areas.values().iterator();
+		while (areaIterator.hasNext())
+		{
+			TrackedArea tracked = areaIterator.next();
+			if (tracked.getLastFrame() != frame)
+			{
+				addDirtyRegion(tracked.getBounds());
+				areaIterator.remove();
+			}
+		}
+	}
+	
+	private synchronized void invalidateComponent(UIComponent component)
+	{
+		TrackedComponent tracked = this.components.get(component);
+		if (tracked == null)
+			return;
+		
+		// The component may have moved as well
+		addDirtyRegion(tracked.getBounds());
+		if (tracked.hasMoved(component))
+		{
+			tracked.update(component);
+			addDirtyRegion(tracked.getBounds());
+		}
+		
+		// The drawers of the component may draw outside it
+		for (TrackedArea area : this.areas.values())
+		{
+			if (area.getComponent() == component)
+				addDirtyRegion(area.getBounds());
+		}
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class TrackedArea
+	{
+		// ATTRIBUTES	--------------------
+		
+		private UIComponent component;
+		private Rectangle2D bounds;
+		private int lastFrame;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public TrackedArea(UIComponent component, Rectangle2D bounds)
+		{
+			this.component = component;
+			this.bounds = bounds;
+		}
+		
+		
+		// GETTERS & SETTERS	------------
+		
+		public UIComponent getComponent()
+		{
+			return this.component;
+		}
+		
+		public Rectangle2D getBounds()
+		{
+			return this.bounds;
+		}
+		
+		public void setBounds(Rectangle2D bounds)
+		{
+			this.bounds = bounds;
+		}
+		
+		public int getLastFrame()
+		{
+			return this.lastFrame;
+		}
+		
+		public void setLastFrame(int frame)
+		{
+			this.lastFrame = frame;
+		}
+	}
+	
+	private static class TrackedComponent
+	{
+		// ATTRIBUTES	--------------------
+		
+		private Transformation transformation;
+		private Vector3D dimensions, origin;
+		private Rectangle2D bounds;
+		private int lastFrame;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public TrackedComponent(UIComponent component)
+		{
+			update(component);
+		}
+		
+		
+		// GETTERS & SETTERS	------------
+		
+		public Rectangle2D getBounds()
+		{
+			return this.bounds;
+		}
+		
+		public int getLastFrame()
+		{
+			return this.lastFrame;
+		}
+		
+		public void setLastFrame(int frame)
+		{
+			this.lastFrame = frame;
+		}
+		
+		
+		// OTHER METHODS	----------------
+		
+		public boolean hasMoved(UIComponent component)
+		{
+			// Transformations are replaced instead of being modified
+			return component.getTransformation() != this.transformation || 
+					!areEqual(component.getDimensions(), this.dimensions) || 
+					!areEqual(component.getOrigin(), this.origin);
+		}
+		
+		public void update(UIComponent component)
+		{
+			this.transformation = component.getTransformation();
+			this.dimensions = component.getDimensions();
+			this.origin = component.getOrigin();
+			this.bounds = UIComponentIndex.getBoundingBox(component);
+		}
+		
+		private static boolean areEqual(Vector3D first, Vector3D second)
+		{
+			// Components may return new vectors each time, so the values are compared
+			return first.getFirst() == second.getFirst() && 
+					first.getSecond() == second.getSecond();
+		}
+	}
+}
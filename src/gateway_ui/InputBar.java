@@ -27,7 +27,7 @@ public class InputBar extends SimpleHandled implements UIComponent, Drawable
 	private Transformation transformation;
 	private InputReader input;
 	private Vector3D textMargins, dimensions;
-	private Font font;
+	private TextLabel text;
 	private Color textColor;
 	private int drawingDepth;
 	
@@ -52,7 +52,7 @@ public class InputBar extends SimpleHandled implements UIComponent, Drawable
 		this.input = new InputReader(handlers);
 		this.textMargins = textMargins;
 		this.dimensions = dimensions;
-		this.font = font;
+		this.text = new TextLabel("", font);
 		this.textColor = textColor;
 		this.drawingDepth = drawingDepth;
 		
@@ -63,6 +63,16 @@ public class InputBar extends SimpleHandled implements UIComponent, Drawable
 				new StateOperator(true, true));
 		
 		this.input.makeDependentFrom(this);
+		
+		// The bar needs to be drawn again whenever the input changes
+		this.input.addInvalidationListener(new InvalidationListener()
+		{
+			@Override
+			public void onInvalidated()
+			{
+				DirtyRegionTracker.invalidate(InputBar.this);
+			}
+		});
 	}
 	
 	
@@ -103,11 +113,11 @@ public class InputBar extends SimpleHandled implements UIComponent, Drawable
 	{
 		AffineTransform lastTransform = getTransformation().transform(g2d);
 		
-		// Draws the text
-		g2d.setColor(this.textColor);
-		g2d.setFont(this.font);
-		g2d.drawString(getInputReader().getInput(), this.textMargins.getFirstInt(), 
-				getDimensions().getSecondInt() - this.textMargins.getSecondInt());
+		// Draws the text (the input string only changes when new input is received)
+		this.text.setText(getInputReader().getInput());
+		this.text.draw(g2d, this.textMargins.getFirstInt(), 
+				getDimensions().getSecondInt() - this.textMargins.getSecondInt(), 
+				this.textColor);
 		
 		g2d.setTransform(lastTransform);
 	}
@@ -1,5 +1,8 @@
 package gateway_ui;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import genesis_event.EventSelector;
 import genesis_event.GenesisHandlerType;
 import genesis_event.Handled;
@@ -26,6 +29,7 @@ public class InputReader extends SimpleHandled implements KeyListener
 	private String inputString;
 	private boolean inputUpdated;
 	private EventSelector<KeyEvent> selector;
+	private List<InvalidationListener> invalidationListeners;
 	
 	
 	// CONSTRUCTOR	------------------------------------------------------
@@ -43,6 +47,7 @@ public class InputReader extends SimpleHandled implements KeyListener
 		this.selector = KeyEvent.createEventTypeSelector(KeyEventType.PRESSED);
 		this.inputString = null;
 		this.inputUpdated = true;
+		this.invalidationListeners = new CopyOnWriteArrayList<>();
 	}
 	
 	
@@ -70,6 +75,7 @@ public class InputReader extends SimpleHandled implements KeyListener
 	{
 		this.input = new StringBuilder(newInput);
 		this.inputUpdated = true;
+		informInvalidationListeners();
 	}
 	
 	
@@ -90,6 +96,7 @@ public class InputReader extends SimpleHandled implements KeyListener
 			{
 				this.input.deleteCharAt(this.input.length() - 1);
 				this.inputUpdated = true;
+				informInvalidationListeners();
 			}
 		}
 		else if (event.getContentType() == ContentType.KEYCODE || event.getKeyChar() == 
@@ -99,6 +106,7 @@ public class InputReader extends SimpleHandled implements KeyListener
 		{
 			this.input.append(event.getKeyChar());
 			this.inputUpdated = true;
+			informInvalidationListeners();
 		}
 	}
 	
@@ -115,4 +123,30 @@ public class InputReader extends SimpleHandled implements KeyListener
 		getHandlingOperators().makeDependent(other, GenesisHandlerType.KEYHANDLER);
 		setIsDeadOperator(new DependentStateOperator(other.getIsDeadStateOperator()));
 	}
+	
+	/**
+	 * Adds a new listener that will be informed whenever the input changes
+	 * @param listener The listener that will be informed
+	 */
+	public void addInvalidationListener(InvalidationListener listener)
+	{
+		this.invalidationListeners.add(listener);
+	}
+	
+	/**
+	 * Removes a listener from the informed listeners
+	 * @param listener The listener that will no longer be informed
+	 */
+	public void removeInvalidationListener(InvalidationListener listener)
+	{
+		this.invalidationListeners.remove(listener);
+	}
+	
+	private void informInvalidationListeners()
+	{
+		for (InvalidationListener listener : this.invalidationListeners)
+		{
+			listener.onInvalidated();
+		}
+	}
 }
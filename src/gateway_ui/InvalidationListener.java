@@ -0,0 +1,17 @@
+package gateway_ui;
+
+/**
+ * InvalidationListeners are informed when the visual state of an object changes so that it 
+ * needs to be drawn again
+ * @author agent
+ * @since 18.10.2026
+ * @see DirtyRegionTracker
+ */
+public interface InvalidationListener
+{
+	/**
+	 * This method is called when the object the listener listens to changes its appearance. 
+	 * The method may be called from any thread.
+	 */
+	public void onInvalidated();
+}
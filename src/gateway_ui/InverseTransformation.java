@@ -0,0 +1,83 @@
+package gateway_ui;
+
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * InverseTransformation is a precalculated inverse of a transformation's affine matrix. It 
+ * can be used for transforming points back to the relative space without creating any new 
+ * objects, which makes it fit for frequent hit tests.
+ * @author agent
+ * @since 18.10.2026
+ */
+class InverseTransformation
+{
+	// ATTRIBUTES	------------------------
+	
+	private double m00, m01, m02, m10, m11, m12;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Calculates the inverse of the given transformation
+	 * @param t The transformation that is inverted
+	 */
+	public InverseTransformation(Transformation t)
+	{
+		// The affine matrix can be deduced from how the transformation moves three points
+		Vector3D origin = t.transform(Vector3D.zeroVector());
+		Vector3D xAxis = t.transform(new Vector3D(1, 0)).minus(origin);
+		Vector3D yAxis = t.transform(new Vector3D(0, 1)).minus(origin);
+		
+		double a = xAxis.getFirst();
+		double b = xAxis.getSecond();
+		double c = yAxis.getFirst();
+		double d = yAxis.getSecond();
+		double determinant = a * d - b * c;
+		
+		// A transformation that collapses the plane (zero scaling) doesn't contain any points
+		if (determinant == 0)
+		{
+			this.m00 = Double.NaN;
+			this.m01 = Double.NaN;
+			this.m10 = Double.NaN;
+			this.m11 = Double.NaN;
+		}
+		else
+		{
+			this.m00 = d / determinant;
+			this.m01 = -c / determinant;
+			this.m10 = -b / determinant;
+			this.m11 = a / determinant;
+		}
+		
+		this.m02 = -(this.m00 * origin.getFirst() + this.m01 * origin.getSecond());
+		this.m12 = -(this.m10 * origin.getFirst() + this.m11 * origin.getSecond());
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Transforms a point back to the relative space
+	 * @param x The x-coordinate of the absolute point
+	 * @param y The y-coordinate of the absolute point
+	 * @return The x-coordinate of the relative point
+	 */
+	public double transformX(double x, double y)
+	{
+		return this.m00 * x + this.m01 * y + this.m02;
+	}
+	
+	/**
+	 * Transforms a point back to the relative space
+	 * @param x The x-coordinate of the absolute point
+	 * @param y The y-coordinate of the absolute point
+	 * @return The y-coordinate of the relative point
+	 */
+	public double transformY(double x, double y)
+	{
+		return this.m10 * x + this.m11 * y + this.m12;
+	}
+}
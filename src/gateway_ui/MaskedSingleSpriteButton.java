@@ -2,7 +2,6 @@ package gateway_ui;
 
 import genesis_event.HandlerRelay;
 import genesis_util.Vector3D;
-import vision_sprite.MaskChecker;
 import vision_sprite.Sprite;
 
 /**
@@ -14,7 +13,7 @@ public class MaskedSingleSpriteButton extends SingleSpriteButton
 {
 	// ATTRIBUTES	----------------------
 	
-	private MaskChecker maskChecker;
+	private SpriteMask mask;
 	
 	
 	// CONSTRUCTOR	----------------------
@@ -32,17 +31,16 @@ public class MaskedSingleSpriteButton extends SingleSpriteButton
 	{
 		super(position, initialDepth, sprite, handlers);
 		
-		this.maskChecker = new MaskChecker(mask);
+		this.mask = SpriteMask.getMask(mask);
 	}
 	
 	
 	// IMPLEMENTED METHODS	-----------------
 	
 	@Override
-	public boolean isInAreaOfInterest(Vector3D position)
+	public boolean containsPoint(double x, double y)
 	{
-		return this.maskChecker.maskContainsRelativePoint(
-				getTransformation().inverseTransform(position).plus(
-				this.maskChecker.getMask().getOrigin()), getSpriteDrawer().getImageIndex());
+		return this.mask.containsRelativePoint(getRelativeX(x, y), getRelativeY(x, y), 
+				getSpriteDrawer().getImageIndex());
 	}
 }
@@ -1,16 +1,31 @@
 package gateway_ui;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.image.BufferedImage;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import gateway_event.ButtonEvent;
 import gateway_event.ButtonEvent.ButtonEventType;
 import gateway_event.ButtonEventListener;
+import genesis_event.Actor;
+import genesis_event.Drawable;
 import genesis_event.EventSelector;
 import genesis_event.GenesisHandlerType;
 import genesis_event.HandlerRelay;
+import genesis_event.HandlingOperators;
+import genesis_util.ConnectedHandled;
 import genesis_util.DependentStateOperator;
 import genesis_util.DepthConstants;
 import genesis_util.SimpleHandled;
@@ -21,14 +36,24 @@ import vision_sprite.Sprite;
 
 /**
  * MessageBoxes are simple somewhat abstract tools for presenting information to the user. 
- * MessageBoxes use components like background and buttons, which have to be added separately
+ * MessageBoxes use components like background and buttons, which have to be added separately. 
+ * In composite rendering mode, the box draws itself and its components through a single 
+ * cached image. Auto sized boxes are measured again in the context their text is drawn in 
+ * when they act after the first draw.
  * @author Mikko Hilpinen
  * @since 28.6.2015
  */
-public class MessageBox extends SimpleHandled implements ButtonEventListener, UIComponent
+public class MessageBox extends SimpleHandled implements ButtonEventListener, UIComponent, 
+		Actor
 {
 	// ATTRIBUTES	------------------------
 	
+	// Used until the text has been drawn for the first time
+	private static final FontRenderContext DEFAULT_MEASURING_CONTEXT = 
+			new FontRenderContext(null, true, true);
+	// The components may draw slightly outside the box
+	private static final int COMPOSITE_PADDING = 2;
+	
 	private Transformation transformation;
 	private Vector3D margin, dimensions;
 	private Font buttonFont;
@@ -37,6 +62,12 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 	private HandlerRelay handlers;
 	private InputBar inputBar;
 	private TextDrawer text;
+	private DependentTextDrawer<MessageBox> textDrawer;
+	private List<Drawable> compositeChildren;
+	private CompositeDrawer composite;
+	private boolean autoSized;
+	private FontRenderContext measuringContext;
+	private volatile FontRenderContext drawingContext;
 	
 	private EventSelector<ButtonEvent> selector;
 	
@@ -45,7 +76,7 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 	
 	/**
 	 * Creates a new messagebox that only contains text
-	 * 
+	 *
 	 * @param position The position of the boxes top left corner
 	 * @param dimensions The width and height of the box
 	 * @param margin The horizontal and vertical margins inside the box
@@ -71,10 +102,26 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		this.selector = ButtonEvent.createButtonEventSelector(ButtonEventType.RELEASED);
 		this.buttonFont = buttonFont;
 		this.textColor = textColor;
+		this.autoSized = false;
+		this.measuringContext = DEFAULT_MEASURING_CONTEXT;
+		this.drawingContext = null;
+		this.compositeChildren = new ArrayList<>();
+		this.composite = null;
 		
-		this.text = new DependentTextDrawer<MessageBox>(this, getDepth() - 2, handlers, 
+		this.textDrawer = new DependentTextDrawer<MessageBox>(this, getDepth() - 2, handlers, 
 				new TextDrawer(message, paragraphSeparator, buttonFont, textColor, dimensions, 
-				margin, Vector3D.zeroVector())).getTextDrawer();
+				margin, Vector3D.zeroVector()))
+		{
+			@Override
+			protected void drawSelfBasic(Graphics2D g2d)
+			{
+				// The layout mustn't change during the draw, so the context is only recorded
+				// here and the box is measured again when it acts
+				MessageBox.this.drawingContext = getTextDrawer().getLayoutContext(g2d);
+				super.drawSelfBasic(g2d);
+			}
+		};
+		this.text = this.textDrawer.getTextDrawer();
 		
 		// The messageBox has separate visibility and mouse states
 		getHandlingOperators().setShouldBeHandledOperator(GenesisHandlerType.DRAWABLEHANDLER, 
@@ -83,15 +130,42 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 				new StateOperator(true, true));
 	}
 	
+	/**
+	 * Creates a new messagebox that sizes itself according to its contents. The height of 
+	 * the box is updated whenever the message changes or when buttons or an input bar are 
+	 * added.
+	 *
+	 * @param position The position of the boxes top left corner
+	 * @param width The width of the box
+	 * @param margin The horizontal and vertical margins inside the box
+	 * @param message The message shown in the box
+	 * @param paragraphSeparator The string that separates each paragraph in the text
+	 * @param font The font used for drawing the text
+	 * @param buttonFont The font used in the boxes buttons
+	 * @param textColor The color used for drawing the text
+	 * @param handlers The handlers that will handle the box and it's components (actorHandler 
+	 * is needed for measuring the text in the drawing context)
+	 */
+	public MessageBox(Vector3D position, double width, Vector3D margin, String message, 
+			String paragraphSeparator, Font font, Font buttonFont, Color textColor, 
+			HandlerRelay handlers)
+	{
+		this(position, new Vector3D(width, 2 * margin.getSecond()), margin, message, 
+				paragraphSeparator, font, buttonFont, textColor, handlers);
+		
+		this.autoSized = true;
+		updateLayout();
+	}
+	
 	
 	// IMPLEMENTED METHODS	-------------------------
-
+	
 	@Override
 	public Transformation getTransformation()
 	{
 		return this.transformation;
 	}
-
+	
 	@Override
 	public void setTrasformation(Transformation t)
 	{
@@ -107,7 +181,16 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		// A button release kills the box
 		getIsDeadStateOperator().setState(true);
 	}
-
+	
+	@Override
+	public void act(double duration)
+	{
+		// Auto sized boxes are measured in the same context the text is drawn in
+		FontRenderContext frc = this.drawingContext;
+		if (frc != null)
+			updateMeasuringContext(frc);
+	}
+	
 	@Override
 	public EventSelector<ButtonEvent> getButtonEventSelector()
 	{
@@ -119,7 +202,7 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 	{
 		return this.dimensions;
 	}
-
+	
 	@Override
 	public Vector3D getOrigin()
 	{
@@ -143,6 +226,39 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		return this.handlers;
 	}
 	
+	/**
+	 * @return Is the box drawn through a single cached image
+	 */
+	public boolean isCompositeRendering()
+	{
+		return this.composite != null;
+	}
+	
+	/**
+	 * Changes whether the box and its components are drawn through a single cached image. 
+	 * The image is only drawn again when one of the components reports a change, which makes 
+	 * the box much cheaper to draw. The components are drawn by the box while this mode is 
+	 * on, so their own visibility states are replaced until the mode is turned off.
+	 * @param composite Should the box be drawn as a single image
+	 * @see #addCompositeChild(Drawable)
+	 */
+	public void setCompositeRendering(boolean composite)
+	{
+		if (composite == isCompositeRendering())
+			return;
+		
+		if (composite)
+		{
+			this.composite = new CompositeDrawer();
+			adoptChildren();
+		}
+		else
+		{
+			this.composite.release();
+			this.composite = null;
+		}
+	}
+	
 	
 	// OTHER METHODS	--------------------------
 	
@@ -153,6 +269,22 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 	public void setMessage(String message)
 	{
 		this.text.setText(message);
+		
+		if (this.autoSized)
+			updateLayout();
+	}
+	
+	/**
+	 * Adds a drawable, like the box's background, to the objects that are drawn as a part of 
+	 * the box in composite rendering mode. The buttons, the input bar and the text of the 
+	 * box are included automatically.
+	 * @param drawable The drawable that is drawn as a part of the box
+	 * @see #setCompositeRendering(boolean)
+	 */
+	public void addCompositeChild(Drawable drawable)
+	{
+		this.compositeChildren.add(drawable);
+		adoptChildren();
 	}
 	
 	/**
@@ -165,34 +297,16 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 	public void addButton(AbstractButton button, Vector3D buttonMargins, String message, 
 			boolean killOnRelease)
 	{
-		// Calculates the new button size
-		int buttonWidth = (getDimensions().getFirstInt() - this.margin.getFirstInt() * (2 + 
-				this.buttons.size())) / (this.buttons.size() + 1);
-		
-		// Finds out the highest button size
-		int maxButtonHeight = getButtonHeight();
-		if (button.getDimensions().getSecondInt() > maxButtonHeight)
-			maxButtonHeight = button.getDimensions().getSecondInt();
-		
-		// Repositions the buttons
-		Vector3D nextPosition = new Vector3D(this.margin.getFirst(), 
-				getDimensions().getSecond() - this.margin.getSecond() - maxButtonHeight);
-		for (OptionButton b : this.buttons)
-		{
-			nextPosition = nextPosition.plus(new Vector3D(b.reset(nextPosition, buttonWidth) + 
-					this.margin.getFirst(), 0));
-		}
-		
 		// Adds the latest button
-		OptionButton newButton = new OptionButton(button, nextPosition, buttonWidth, 
-				buttonMargins, message);
+		OptionButton newButton = new OptionButton(button, Vector3D.zeroVector(), 
+				getDimensions().getFirstInt(), buttonMargins, message);
 		this.buttons.add(newButton);
 		
 		if (killOnRelease)
 			button.getListenerHandler().add(this);
 		
-		// Also updates the button transformations
-		updateButtonTransformations();
+		// Repositions the buttons
+		updateLayout();
 	}
 	
 	/**
@@ -234,7 +348,7 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		
 		return button;
 	}
-			
+	
 	/**
 	 * Adds a new input bar to the message box, removing the previous one
 	 * @param inputBar The new input bar that will be placed in the box
@@ -246,7 +360,10 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		{
 			if (killPrevious)
 				this.inputBar.getIsDeadStateOperator().setState(true);
+			if (this.composite != null)
+				this.composite.release(this.inputBar, this.inputBar);
 			this.inputBar = null;
+			updateLayout();
 			return;
 		}
 		
@@ -256,6 +373,8 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		// Destroys the old bar if there is one
 		if (this.inputBar != null && killPrevious)
 			this.inputBar.getIsDeadStateOperator().setState(true);
+		if (this.inputBar != null && this.composite != null)
+			this.composite.release(this.inputBar, this.inputBar);
 		
 		this.inputBar = inputBar;
 		inputBar.setDimensions(new Vector3D(getDimensions().getFirstInt() - 
@@ -263,7 +382,81 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 		inputBar.setDepth(getDepth() - 4);
 		inputBar.makeDependentFrom(this);
 		
+		updateLayout();
+	}
+	
+	private void updateLayout()
+	{
+		// Auto sized boxes are fit around their contents
+		if (this.autoSized)
+		{
+			double height = this.margin.getSecond() * 2 + 
+					this.text.measure(this.measuringContext).getTotalHeight();
+			if (this.inputBar != null)
+				height += this.margin.getSecond() + this.inputBar.getDimensions().getSecond();
+			
+			int buttonHeight = getButtonHeight();
+			if (buttonHeight > 0)
+				height += this.margin.getSecond() + buttonHeight;
+			
+			this.dimensions = new Vector3D(getDimensions().getFirst(), height);
+			this.text.setDimensions(this.dimensions, false);
+		}
+		
+		updateButtonPositions();
 		updateInputBarTransformations();
+		adoptChildren();
+	}
+	
+	private void updateMeasuringContext(FontRenderContext frc)
+	{
+		// The lines may wrap differently in a different context, which changes the height
+		if (!this.autoSized || frc.equals(this.measuringContext))
+			return;
+		
+		this.measuringContext = frc;
+		updateLayout();
+		DirtyRegionTracker.invalidate(this);
+	}
+	
+	private void adoptChildren()
+	{
+		if (this.composite == null)
+			return;
+		
+		this.composite.adopt(this.textDrawer, this);
+		for (OptionButton button : this.buttons)
+		{
+			button.adoptTo(this.composite);
+		}
+		if (this.inputBar != null)
+			this.composite.adopt(this.inputBar, this.inputBar);
+		for (Drawable drawable : this.compositeChildren)
+		{
+			this.composite.adopt(drawable, this);
+		}
+		
+		// The layout may have changed as well
+		this.composite.invalidate();
+	}
+	
+	private void updateButtonPositions()
+	{
+		if (this.buttons.isEmpty())
+			return;
+		
+		// Calculates the button size
+		int buttonWidth = (getDimensions().getFirstInt() - this.margin.getFirstInt() * (1 + 
+				this.buttons.size())) / this.buttons.size();
+		
+		// Repositions the buttons
+		Vector3D nextPosition = new Vector3D(this.margin.getFirst(), 
+				getDimensions().getSecond() - this.margin.getSecond() - getButtonHeight());
+		for (OptionButton b : this.buttons)
+		{
+			nextPosition = nextPosition.plus(new Vector3D(b.reset(nextPosition, buttonWidth) + 
+					this.margin.getFirst(), 0));
+		}
 	}
 	
 	private void updateInputBarTransformations()
@@ -375,6 +568,18 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 			return this.button.getDimensions().getFirst() * this.scaling.getFirst();
 		}
 		
+		public void adoptTo(CompositeDrawer composite)
+		{
+			// Sprite buttons are drawn by separate drawers
+			if (this.button instanceof Drawable)
+				composite.adopt((Drawable) this.button, this.button);
+			else if (this.button instanceof AbstractSpriteButton<?>)
+				composite.adopt(((AbstractSpriteButton<?>) this.button).getDrawer(), 
+						this.button);
+			
+			composite.adopt(this.text.getDrawer(), this.text);
+		}
+		
 		private Vector3D getAbsoluteButtonPosition()
 		{
 			return getTransformation().transform(this.relativePosition.plus(
@@ -386,4 +591,236 @@ public class MessageBox extends SimpleHandled implements ButtonEventListener, UI
 			return getTransformation().transform(this.relativePosition);
 		}
 	}
+	
+	private class CompositeDrawer extends ConnectedHandled<MessageBox> implements Drawable
+	{
+		// ATTRIBUTES	--------------------------
+		
+		private Map<Drawable, StateOperator> children;
+		private List<Drawable> drawOrder;
+		private List<UIComponent> observed;
+		private InvalidationListener childListener, boxListener;
+		private volatile boolean dirty;
+		private BufferedImage image;
+		
+		
+		// CONSTRUCTOR	--------------------------
+		
+		public CompositeDrawer()
+		{
+			super(MessageBox.this, getHandlers());
+			
+			this.children = new IdentityHashMap<>();
+			this.drawOrder = new ArrayList<>();
+			this.observed = new ArrayList<>();
+			this.dirty = true;
+			this.image = null;
+			this.childListener = new CompositeInvalidator(this, true);
+			
+			getHandlingOperators().makeDependent(MessageBox.this, 
+					GenesisHandlerType.DRAWABLEHANDLER);
+			
+			// The box's own changes are already reported for its area
+			this.boxListener = new CompositeInvalidator(this, false);
+			DirtyRegionTracker.addInvalidationListener(MessageBox.this, this.boxListener);
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------------
+		
+		@Override
+		public void drawSelf(Graphics2D g2d)
+		{
+			BufferedImage image = getImage();
+			if (image == null)
+				return;
+			
+			AffineTransform lastTransform = getTransformation().transform(g2d);
+			g2d.drawImage(image, -COMPOSITE_PADDING, -COMPOSITE_PADDING, null);
+			g2d.setTransform(lastTransform);
+		}
+		
+		@Override
+		public int getDepth()
+		{
+			return MessageBox.this.getDepth();
+		}
+		
+		
+		// OTHER METHODS	----------------------
+		
+		public void invalidate()
+		{
+			this.dirty = true;
+		}
+		
+		public synchronized void adopt(Drawable drawable, UIComponent component)
+		{
+			if (!this.children.containsKey(drawable))
+			{
+				// The drawable is hidden from its handler and drawn by the composite instead
+				HandlingOperators operators = drawable.getHandlingOperators();
+				this.children.put(drawable, operators.getShouldBeHandledOperator(
+						GenesisHandlerType.DRAWABLEHANDLER));
+				operators.setShouldBeHandledOperator(GenesisHandlerType.DRAWABLEHANDLER, 
+						new StateOperator(false, false));
+				
+				// The components at the bottom are drawn first
+				int index = 0;
+				while (index < this.drawOrder.size() && 
+						this.drawOrder.get(index).getDepth() >= drawable.getDepth())
+				{
+					index ++;
+				}
+				this.drawOrder.add(index, drawable);
+			}
+			
+			if (component != MessageBox.this && !this.observed.contains(component))
+			{
+				this.observed.add(component);
+				DirtyRegionTracker.addInvalidationListener(component, this.childListener);
+			}
+			
+			this.dirty = true;
+		}
+		
+		public synchronized void release(Drawable drawable, UIComponent component)
+		{
+			StateOperator visibility = this.children.remove(drawable);
+			if (visibility != null)
+			{
+				this.drawOrder.remove(drawable);
+				drawable.getHandlingOperators().setShouldBeHandledOperator(
+						GenesisHandlerType.DRAWABLEHANDLER, visibility);
+			}
+			
+			if (this.observed.remove(component))
+				DirtyRegionTracker.removeInvalidationListener(component, this.childListener);
+			
+			this.dirty = true;
+		}
+		
+		public synchronized void release()
+		{
+			for (Drawable drawable : this.children.keySet())
+			{
+				drawable.getHandlingOperators().setShouldBeHandledOperator(
+						GenesisHandlerType.DRAWABLEHANDLER, this.children.get(drawable));
+			}
+			for (UIComponent component : this.observed)
+			{
+				DirtyRegionTracker.removeInvalidationListener(component, this.childListener);
+			}
+			DirtyRegionTracker.removeInvalidationListener(MessageBox.this, this.boxListener);
+			
+			this.children.clear();
+			this.drawOrder.clear();
+			this.observed.clear();
+			this.image = null;
+			getIsDeadStateOperator().setState(true);
+		}
+		
+		private synchronized BufferedImage getImage()
+		{
+			int width = getDimensions().getFirstInt() + 2 * COMPOSITE_PADDING;
+			int height = getDimensions().getSecondInt() + 2 * COMPOSITE_PADDING;
+			if (width <= 0 || height <= 0)
+				return null;
+			
+			if (this.image == null || this.image.getWidth() != width || 
+					this.image.getHeight() != height)
+			{
+				this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+				this.dirty = true;
+			}
+			
+			// Changes made while the image is being drawn make it dirty again
+			if (this.dirty)
+			{
+				this.dirty = false;
+				render();
+			}
+			
+			return this.image;
+		}
+		
+		private void render()
+		{
+			Graphics2D g2d = this.image.createGraphics();
+			g2d.setComposite(AlphaComposite.Clear);
+			g2d.fillRect(0, 0, this.image.getWidth(), this.image.getHeight());
+			g2d.setComposite(AlphaComposite.SrcOver);
+			g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, 
+					RenderingHints.VALUE_ANTIALIAS_ON);
+			g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, 
+					RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+			
+			// The components draw themselves on the screen, so the box's transformation is
+			// undone first
+			getTransformation().transform(g2d);
+			AffineTransform toBox;
+			try
+			{
+				toBox = g2d.getTransform().createInverse();
+			}
+			catch (NoninvertibleTransformException e)
+			{
+				g2d.dispose();
+				return;
+			}
+			g2d.setTransform(AffineTransform.getTranslateInstance(COMPOSITE_PADDING, 
+					COMPOSITE_PADDING));
+			g2d.transform(toBox);
+			
+			// The children are kept in drawing order
+			Iterator<Drawable> iterator = this.drawOrder.iterator();
+			while (iterator.hasNext())
+			{
+				Drawable drawable = iterator.next();
+				if (drawable.getIsDeadStateOperator().getState())
+				{
+					this.children.remove(drawable);
+					iterator.remove();
+				}
+				else if (this.children.get(drawable).getState())
+					drawable.drawSelf(g2d);
+			}
+			
+			g2d.dispose();
+		}
+	}
+	
+	private static class CompositeInvalidator implements InvalidationListener
+	{
+		// ATTRIBUTES	--------------------------
+		
+		// The listeners are stored with the components, which mustn't keep the box alive
+		private WeakReference<CompositeDrawer> composite;
+		private boolean invalidatesBox;
+		
+		
+		// CONSTRUCTOR	--------------------------
+		
+		public CompositeInvalidator(CompositeDrawer composite, boolean invalidatesBox)
+		{
+			this.composite = new WeakReference<>(composite);
+			this.invalidatesBox = invalidatesBox;
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------------
+		
+		@Override
+		public void onInvalidated()
+		{
+			CompositeDrawer composite = this.composite.get();
+			if (composite == null)
+				return;
+			
+			composite.invalidate();
+			// The components are hidden, so their changes are reported for the box's area
+			if (this.invalidatesBox)
+				DirtyRegionTracker.invalidate(composite.getMaster());
+		}
+	}
 }
@@ -0,0 +1,280 @@
+package gateway_ui;
+
+import java.awt.Graphics2D;
+import java.awt.Insets;
+import java.awt.Paint;
+import java.awt.TexturePaint;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import genesis_event.HandlerRelay;
+import genesis_util.Vector3D;
+import vision_sprite.Sprite;
+
+/**
+ * This background divides a sprite into nine slices. The corners are drawn in their 
+ * original size, the edges are stretched or tiled along the sides of the component and the 
+ * centre fills the rest of the area. This way a small sprite can be used for components of 
+ * any size without scaling the whole sprite. The slices are shared between all the 
+ * backgrounds that use the same sprite and borders.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class NineSliceUIComponentBackground extends UIComponentBackground
+{
+	// ATTRIBUTES	--------------------
+	
+	private static final Map<Sprite, List<SliceSet>> sliceSets = new WeakHashMap<>();
+	
+	private SliceSet slices;
+	private boolean tilesEdges;
+	private int imageIndex;
+	private TexturePaint[] paints;
+	private int[] paintedArea;
+	private int paintedImageIndex;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new background
+	 * @param master The component this background is for
+	 * @param handlers The handlers that will handle the background
+	 * @param sprite The sprite that is sliced
+	 * @param borders The widths of the sprite's borders in pixels. These define the size of 
+	 * the corners.
+	 * @param tilesEdges Should the edges and the centre be repeated instead of being 
+	 * stretched
+	 */
+	public NineSliceUIComponentBackground(UIComponent master, HandlerRelay handlers, 
+			Sprite sprite, Insets borders, boolean tilesEdges)
+	{
+		super(master, handlers);
+		
+		this.slices = getSliceSet(sprite, borders);
+		this.tilesEdges = tilesEdges;
+		this.imageIndex = 0;
+		this.paints = new TexturePaint[9];
+		this.paintedArea = new int[8];
+		this.paintedImageIndex = -1;
+	}
+	
+	
+	// IMPLEMENTED METHODS	-------------
+	
+	@Override
+	public void drawSelf(Graphics2D g2d)
+	{
+		AffineTransform lastTransform = getMaster().getTransformation().transform(g2d);
+		
+		Vector3D origin = getMaster().getOrigin();
+		Vector3D dimensions = getMaster().getDimensions();
+		BufferedImage[] slices = this.slices.getSlices(this.imageIndex);
+		Insets borders = this.slices.getBorders();
+		
+		// The corners keep their size unless the component is too small for them
+		double scaling = 1;
+		if (borders.left + borders.right > dimensions.getFirst())
+			scaling = dimensions.getFirst() / (borders.left + borders.right);
+		if (borders.top + borders.bottom > dimensions.getSecond())
+			scaling = Math.min(scaling, dimensions.getSecond() / 
+					(borders.top + borders.bottom));
+		
+		int[] x = new int[4];
+		x[0] = (int) Math.round(-origin.getFirst());
+		x[3] = (int) Math.round(dimensions.getFirst() - origin.getFirst());
+		x[1] = x[0] + (int) (borders.left * scaling);
+		x[2] = x[3] - (int) (borders.right * scaling);
+		int[] y = new int[4];
+		y[0] = (int) Math.round(-origin.getSecond());
+		y[3] = (int) Math.round(dimensions.getSecond() - origin.getSecond());
+		y[1] = y[0] + (int) (borders.top * scaling);
+		y[2] = y[3] - (int) (borders.bottom * scaling);
+		
+		if (this.tilesEdges)
+			updatePaints(slices, x, y);
+		
+		for (int row = 0; row < 3; row++)
+		{
+			for (int column = 0; column < 3; column++)
+			{
+				int index = row * 3 + column;
+				if (slices[index] == null || x[column + 1] <= x[column] || 
+						y[row + 1] <= y[row])
+					continue;
+				
+				// Only the edges and the centre are tiled, each with a single fill
+				if (this.paints[index] != null)
+				{
+					Paint lastPaint = g2d.getPaint();
+					g2d.setPaint(this.paints[index]);
+					g2d.fillRect(x[column], y[row], x[column + 1] - x[column], 
+							y[row + 1] - y[row]);
+					g2d.setPaint(lastPaint);
+				}
+				else
+					g2d.drawImage(slices[index], x[column], y[row], x[column + 1] - x[column], 
+							y[row + 1] - y[row], null);
+			}
+		}
+		
+		g2d.setTransform(lastTransform);
+	}
+	
+	
+	// OTHER METHODS	-----------------
+	
+	/**
+	 * Changes the currently presented image
+	 * @param index The index of the new image
+	 */
+	public void setImageIndex(int index)
+	{
+		this.imageIndex = index;
+		DirtyRegionTracker.invalidate(getMaster());
+	}
+	
+	private void updatePaints(BufferedImage[] slices, int[] x, int[] y)
+	{
+		// The paints only change when the component is resized or the image changes
+		if (this.paintedImageIndex == this.imageIndex && isPaintedArea(x, y))
+			return;
+		
+		this.paintedImageIndex = this.imageIndex;
+		System.arraycopy(x, 0, this.paintedArea, 0, 4);
+		System.arraycopy(y, 0, this.paintedArea, 4, 4);
+		
+		for (int row = 0; row < 3; row++)
+		{
+			for (int column = 0; column < 3; column++)
+			{
+				int index = row * 3 + column;
+				BufferedImage slice = slices[index];
+				if (slice == null || (row != 1 && column != 1))
+				{
+					this.paints[index] = null;
+					continue;
+				}
+				
+				// The texture is anchored to the slice's corner. Along the tiled axes the
+				// tiles keep their original size, along the other axis they fill the area.
+				double width = column == 1 ? slice.getWidth() : x[column + 1] - x[column];
+				double height = row == 1 ? slice.getHeight() : y[row + 1] - y[row];
+				if (width <= 0 || height <= 0)
+					this.paints[index] = null;
+				else
+					this.paints[index] = new TexturePaint(slice, new Rectangle2D.Double(
+							x[column], y[row], width, height));
+			}
+		}
+	}
+	
+	private boolean isPaintedArea(int[] x, int[] y)
+	{
+		for (int i = 0; i < 4; i++)
+		{
+			if (this.paintedArea[i] != x[i] || this.paintedArea[4 + i] != y[i])
+				return false;
+		}
+		return true;
+	}
+	
+	private static SliceSet getSliceSet(Sprite sprite, Insets borders)
+	{
+		synchronized (sliceSets)
+		{
+			List<SliceSet> sets = sliceSets.get(sprite);
+			if (sets == null)
+			{
+				sets = new ArrayList<>();
+				sliceSets.put(sprite, sets);
+			}
+			
+			for (SliceSet set : sets)
+			{
+				if (set.getBorders().equals(borders))
+					return set;
+			}
+			
+			SliceSet set = new SliceSet(sprite, borders);
+			sets.add(set);
+			return set;
+		}
+	}
+	
+	
+	// SUBCLASSES	--------------------
+	
+	private static class SliceSet
+	{
+		// ATTRIBUTES	----------------
+		
+		private Insets borders;
+		private BufferedImage[][] slices;
+		
+		
+		// CONSTRUCTOR	----------------
+		
+		public SliceSet(Sprite sprite, Insets borders)
+		{
+			this.borders = (Insets) borders.clone();
+			this.slices = new BufferedImage[sprite.getImageNumber()][];
+			
+			// The slices are copied so that they can be drawn without the rest of the image
+			for (int i = 0; i < this.slices.length; i++)
+			{
+				BufferedImage image = sprite.getSubImage(i);
+				int[] x = {0, borders.left, image.getWidth() - borders.right, image.getWidth()};
+				int[] y = {0, borders.top, image.getHeight() - borders.bottom, 
+						image.getHeight()};
+				
+				this.slices[i] = new BufferedImage[9];
+				for (int row = 0; row < 3; row++)
+				{
+					for (int column = 0; column < 3; column++)
+					{
+						this.slices[i][row * 3 + column] = copy(image, x[column], y[row], 
+								x[column + 1] - x[column], y[row + 1] - y[row]);
+					}
+				}
+			}
+		}
+		
+		
+		// GETTERS & SETTERS	--------
+		
+		public Insets getBorders()
+		{
+			return this.borders;
+		}
+		
+		public BufferedImage[] getSlices(int imageIndex)
+		{
+			return this.slices[imageIndex % this.slices.length];
+		}
+		
+		
+		// OTHER METHODS	------------
+		
+		private static BufferedImage copy(BufferedImage image, int x, int y, int width, 
+				int height)
+		{
+			// Empty slices are not drawn
+			if (width <= 0 || height <= 0)
+				return null;
+			
+			BufferedImage slice = new BufferedImage(width, height, 
+					BufferedImage.TYPE_INT_ARGB_PRE);
+			Graphics2D g2d = slice.createGraphics();
+			g2d.drawImage(image, -x, -y, null);
+			g2d.dispose();
+			
+			return slice;
+		}
+	}
+}
@@ -23,9 +23,8 @@ public class OptionBar extends SimpleHandled implements Drawable, UIComponent
 	// ATTRIBUTES	----------------------
 	
 	private Transformation transformation;
-	private String description;
+	private TextLabel description;
 	private Vector3D margins, dimensions;
-	private Font textFont;
 	private Color textColor;
 	private int depth;
 	private AbstractOption<?> options;
@@ -51,10 +50,9 @@ public class OptionBar extends SimpleHandled implements Drawable, UIComponent
 		super(handlers);
 		
 		this.transformation = new Transformation(position);
-		this.description = description;
+		this.description = new TextLabel(description, font);
 		this.margins = margins;
 		this.textColor = textColor;
-		this.textFont = font;
 		this.dimensions = dimensions;
 		this.depth = drawingDepth;
 		this.options = null;
@@ -86,10 +84,8 @@ public class OptionBar extends SimpleHandled implements Drawable, UIComponent
 		AffineTransform lastTransform = getTransformation().transform(g2d);
 		
 		// Draws the description
-		g2d.setFont(this.textFont);
-		g2d.setColor(this.textColor);
-		g2d.drawString(this.description, this.margins.getFirstInt(), 
-				this.dimensions.getSecondInt() - this.margins.getSecondInt());
+		this.description.draw(g2d, this.margins.getFirstInt(), 
+				this.dimensions.getSecondInt() - this.margins.getSecondInt(), this.textColor);
 		
 		g2d.setTransform(lastTransform);
 	}
@@ -0,0 +1,227 @@
+package gateway_ui;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ParagraphLayout contains a single paragraph of text broken into lines of a certain width. 
+ * The lines are laid out when the layout is created. Each line keeps its own height, since 
+ * the lines may contain characters from fonts with different metrics. The layouts are 
+ * immutable and can be shared between multiple textDrawers.
+ * @author agent
+ * @since 18.10.2026
+ */
+class ParagraphLayout
+{
+	// ATTRIBUTES	------------------------
+	
+	private String text;
+	private BitmapFont bitmapFont;
+	private int[] lineStarts;
+	private TextLayout[] lines;
+	private float[] lineTops, baselines;
+	private float wrappingWidth;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Breaks the text into lines
+	 * @param text The text in the paragraph (not empty)
+	 * @param font The font used in the text
+	 * @param wrappingWidth The maximum width of a line
+	 * @param frc The context in which the text is rendered
+	 * @param bitmapFont The bitmap font used in place of the font. Null if there is no such 
+	 * font.
+	 */
+	public ParagraphLayout(String text, Font font, float wrappingWidth, FontRenderContext frc, 
+			BitmapFont bitmapFont)
+	{
+		this.text = text;
+		this.wrappingWidth = wrappingWidth;
+		
+		// Text drawn with a bitmap font is also wrapped with the bitmap font's advances
+		List<Integer> lineStarts = new ArrayList<>();
+		if (bitmapFont != null && bitmapFont.canDisplay(text))
+		{
+			this.bitmapFont = bitmapFont;
+			
+			int position = 0;
+			while (position < text.length())
+			{
+				lineStarts.add(position);
+				position = bitmapFont.getLineEnd(text, position, wrappingWidth);
+			}
+			lineStarts.add(text.length());
+			setLineStarts(lineStarts);
+			
+			// All bitmap lines have the same metrics
+			for (int i = 0; i < this.baselines.length; i++)
+			{
+				this.baselines[i] = this.lineTops[i] + bitmapFont.getAscent();
+				this.lineTops[i + 1] = this.lineTops[i] + bitmapFont.getLineHeight();
+			}
+			return;
+		}
+		this.bitmapFont = null;
+		
+		AttributedString attstring = new AttributedString(text);
+		attstring.addAttribute(TextAttribute.FONT, font);
+		
+		// From: http://docs.oracle.com/javase/7/docs/api/java/awt/font/LineBreakMeasurer.html
+		LineBreakMeasurer measurer = new LineBreakMeasurer(attstring.getIterator(), frc);
+		List<TextLayout> lines = new ArrayList<>();
+		while (measurer.getPosition() < text.length())
+		{
+			lineStarts.add(measurer.getPosition());
+			lines.add(measurer.nextLayout(wrappingWidth));
+		}
+		lineStarts.add(text.length());
+		setLineStarts(lineStarts);
+		
+		// Each line is as high as the fonts used on it require
+		for (int i = 0; i < this.lines.length; i++)
+		{
+			TextLayout line = lines.get(i);
+			this.lines[i] = line;
+			this.baselines[i] = this.lineTops[i] + line.getAscent();
+			this.lineTops[i + 1] = this.lineTops[i] + line.getAscent() + line.getDescent() + 
+					line.getLeading();
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return The text in the paragraph
+	 */
+	public String getText()
+	{
+		return this.text;
+	}
+	
+	/**
+	 * @return The bitmap font the paragraph is drawn with. Null if the paragraph is drawn 
+	 * with the normal font.
+	 */
+	public BitmapFont getBitmapFont()
+	{
+		return this.bitmapFont;
+	}
+	
+	/**
+	 * @param index The index of a line
+	 * @return The index of the first character on the line
+	 */
+	public int getLineStart(int index)
+	{
+		return this.lineStarts[index];
+	}
+	
+	/**
+	 * @param index The index of a line
+	 * @return The index after the last character on the line
+	 */
+	public int getLineEnd(int index)
+	{
+		return this.lineStarts[index + 1];
+	}
+	
+	/**
+	 * @return The amount of lines in the paragraph
+	 */
+	public int getLineCount()
+	{
+		return this.lines.length;
+	}
+	
+	/**
+	 * @param index The index of a line. The line count gives the bottom of the last line.
+	 * @return The y-coordinate of the top of the line, relative to the top of the paragraph
+	 */
+	public float getLineTop(int index)
+	{
+		return this.lineTops[index];
+	}
+	
+	/**
+	 * @param index The index of a line
+	 * @return The y-coordinate of the line's baseline, relative to the top of the paragraph
+	 */
+	public float getBaseline(int index)
+	{
+		return this.baselines[index];
+	}
+	
+	/**
+	 * @return The height of the whole paragraph
+	 */
+	public float getHeight()
+	{
+		return this.lineTops[getLineCount()];
+	}
+	
+	/**
+	 * @return The maximum width of a line
+	 */
+	public float getWrappingWidth()
+	{
+		return this.wrappingWidth;
+	}
+	
+	/**
+	 * @return A rough estimate of how many bytes the layout takes
+	 */
+	public long getEstimatedSize()
+	{
+		// The glyph data of the lines dominates
+		return 256 + 36L * this.text.length() + 64L * this.lines.length;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * @param index The index of the line
+	 * @return The layout of the line. Null if the paragraph is drawn with a bitmap font.
+	 */
+	public TextLayout getLine(int index)
+	{
+		return this.lines[index];
+	}
+	
+	/**
+	 * Finds the line at a certain height
+	 * @param y A y-coordinate relative to the top of the paragraph
+	 * @return The index of the last line that starts above the coordinate (0 if there is no 
+	 * such line)
+	 */
+	public int getLineAt(float y)
+	{
+		int index = Arrays.binarySearch(this.lineTops, 0, getLineCount(), y);
+		if (index < 0)
+			index = -index - 2;
+		
+		return Math.max(0, index);
+	}
+	
+	private void setLineStarts(List<Integer> lineStarts)
+	{
+		this.lineStarts = new int[lineStarts.size()];
+		for (int i = 0; i < this.lineStarts.length; i++)
+		{
+			this.lineStarts[i] = lineStarts.get(i);
+		}
+		this.lines = new TextLayout[this.lineStarts.length - 1];
+		this.lineTops = new float[this.lineStarts.length];
+		this.baselines = new float[this.lines.length];
+	}
+}
@@ -0,0 +1,367 @@
+package gateway_ui;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import genesis_util.Vector3D;
+import vision_sprite.Sprite;
+
+/**
+ * ScaledSpriteCache holds sprite frames that have been scaled to the size they are drawn in 
+ * on the screen. The scaled frames are shared by all the gateway components, so identical 
+ * buttons only scale their sprite once and resizing a component doesn't scale the whole 
+ * sprite again. The least recently used frames are discarded once the memory usage of the 
+ * cache exceeds its limit.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class ScaledSpriteCache
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final Map<Key, BufferedImage> images = new LinkedHashMap<>(64, 0.75f, 
+			true);
+	private static long memoryLimit = 16 * 1024 * 1024;
+	private static long memoryUsage = 0;
+	private static long hits = 0, misses = 0, evictions = 0;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	private ScaledSpriteCache()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return How many times a scaled frame was found from the cache
+	 */
+	public static synchronized long getHitCount()
+	{
+		return hits;
+	}
+	
+	/**
+	 * @return How many times a frame had to be scaled
+	 */
+	public static synchronized long getMissCount()
+	{
+		return misses;
+	}
+	
+	/**
+	 * @return How many frames have been discarded because of the memory limit
+	 */
+	public static synchronized long getEvictionCount()
+	{
+		return evictions;
+	}
+	
+	/**
+	 * @return How many scaled frames are currently cached
+	 */
+	public static synchronized int getSize()
+	{
+		return images.size();
+	}
+	
+	/**
+	 * @return The amount of memory used by the cached frames in bytes
+	 */
+	public static synchronized long getMemoryUsage()
+	{
+		return memoryUsage;
+	}
+	
+	/**
+	 * @return The amount of memory the cached frames may use in bytes
+	 */
+	public static synchronized long getMemoryLimit()
+	{
+		return memoryLimit;
+	}
+	
+	/**
+	 * Changes the amount of memory the cached frames may use. The least recently used 
+	 * frames are discarded if necessary.
+	 * @param limit The new memory limit in bytes (16 MB by default)
+	 */
+	public static synchronized void setMemoryLimit(long limit)
+	{
+		memoryLimit = limit;
+		trim();
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Removes all frames from the cache. The statistics are not reset.
+	 */
+	public static synchronized void clear()
+	{
+		images.clear();
+		memoryUsage = 0;
+	}
+	
+	/**
+	 * Resets the hit, miss and eviction counts
+	 */
+	public static synchronized void resetStatistics()
+	{
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+	
+	/**
+	 * Draws a sprite frame so that it fills the given area. The frame is scaled to the size 
+	 * it has on the screen once and then drawn through the cache.
+	 * @param g2d The graphics object that does the drawing
+	 * @param sprite The sprite that is drawn
+	 * @param imageIndex The index of the drawn frame
+	 * @param dimensions The size of the drawn area before the transformations of the 
+	 * graphics object
+	 * @param origin The origin of the drawn area, which is placed at (0, 0)
+	 */
+	public static void drawSprite(Graphics2D g2d, Sprite sprite, int imageIndex, 
+			Vector3D dimensions, Vector3D origin)
+	{
+		drawSprite(g2d, sprite, imageIndex, dimensions, origin, null);
+	}
+	
+	/**
+	 * Draws a sprite frame so that it fills the given area. The state remembers the frame 
+	 * that was drawn the last time, so drawing the same frame in the same size again 
+	 * doesn't need to access the cache. While the size of the frame keeps changing, the 
+	 * frame is scaled while drawing instead so that the cache isn't filled with frames 
+	 * that are only used once.
+	 * @param g2d The graphics object that does the drawing
+	 * @param sprite The sprite that is drawn
+	 * @param imageIndex The index of the drawn frame
+	 * @param dimensions The size of the drawn area before the transformations of the 
+	 * graphics object
+	 * @param origin The origin of the drawn area, which is placed at (0, 0)
+	 * @param state The state of the object that draws the sprite. Null if no state is kept.
+	 */
+	static void drawSprite(Graphics2D g2d, Sprite sprite, int imageIndex, 
+			Vector3D dimensions, Vector3D origin, DrawState state)
+	{
+		// Finds out how large the frame is on the screen
+		AffineTransform lastTransform = g2d.getTransform();
+		double xScale = Math.hypot(lastTransform.getScaleX(), lastTransform.getShearY());
+		double yScale = Math.hypot(lastTransform.getShearX(), lastTransform.getScaleY());
+		int width = (int) Math.round(dimensions.getFirst() * xScale);
+		int height = (int) Math.round(dimensions.getSecond() * yScale);
+		if (width <= 0 || height <= 0)
+			return;
+		
+		// Java2D scales images with nearest neighbour interpolation when no hint is set
+		Object interpolation = g2d.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+		if (interpolation == null)
+			interpolation = RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR;
+		
+		BufferedImage image;
+		if (state == null)
+			image = getScaledImage(sprite, imageIndex, width, height, interpolation);
+		else if (state.isDrawn(sprite, imageIndex, width, height, interpolation))
+			image = state.image;
+		else if (state.isResized(sprite, width, height))
+		{
+			state.update(sprite, imageIndex, width, height, interpolation, null);
+			
+			BufferedImage frame = sprite.getSubImage(imageIndex % sprite.getImageNumber());
+			g2d.translate(-origin.getFirst(), -origin.getSecond());
+			g2d.scale(dimensions.getFirst() / frame.getWidth(), 
+					dimensions.getSecond() / frame.getHeight());
+			g2d.drawImage(frame, 0, 0, null);
+			g2d.setTransform(lastTransform);
+			return;
+		}
+		else
+		{
+			image = getScaledImage(sprite, imageIndex, width, height, interpolation);
+			state.update(sprite, imageIndex, width, height, interpolation, image);
+		}
+		
+		g2d.translate(-origin.getFirst(), -origin.getSecond());
+		g2d.scale(dimensions.getFirst() / width, dimensions.getSecond() / height);
+		g2d.drawImage(image, 0, 0, null);
+		g2d.setTransform(lastTransform);
+	}
+	
+	/**
+	 * Finds a scaled version of a sprite frame, scaling the frame if there is no such 
+	 * version in the cache
+	 * @param sprite The sprite that contains the frame
+	 * @param imageIndex The index of the frame
+	 * @param width The width of the scaled frame in pixels
+	 * @param height The height of the scaled frame in pixels
+	 * @param interpolation The interpolation hint used when scaling the frame 
+	 * (RenderingHints.VALUE_INTERPOLATION_...)
+	 * @return The scaled frame
+	 */
+	public static BufferedImage getScaledImage(Sprite sprite, int imageIndex, int width, 
+			int height, Object interpolation)
+	{
+		Key key = new Key(sprite, imageIndex % sprite.getImageNumber(), width, height, 
+				interpolation);
+		
+		synchronized (ScaledSpriteCache.class)
+		{
+			BufferedImage image = images.get(key);
+			if (image != null)
+			{
+				hits ++;
+				return image;
+			}
+			misses ++;
+		}
+		
+		// The frame is scaled outside the lock since scaling large images is slow
+		BufferedImage image = new BufferedImage(width, height, 
+				BufferedImage.TYPE_INT_ARGB_PRE);
+		Graphics2D g2d = image.createGraphics();
+		g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation);
+		g2d.drawImage(sprite.getSubImage(key.imageIndex), 0, 0, width, height, null);
+		g2d.dispose();
+		
+		synchronized (ScaledSpriteCache.class)
+		{
+			// Another thread may have scaled the same frame in the meanwhile
+			BufferedImage existing = images.get(key);
+			if (existing != null)
+				return existing;
+			
+			images.put(key, image);
+			memoryUsage += getSize(image);
+			trim();
+		}
+		
+		return image;
+	}
+	
+	private static long getSize(BufferedImage image)
+	{
+		return 4L * image.getWidth() * image.getHeight();
+	}
+	
+	private static void trim()
+	{
+		Iterator<BufferedImage> iterator = images.values().iterator();
+		while (memoryUsage > memoryLimit && iterator.hasNext())
+		{
+			memoryUsage -= getSize(iterator.next());
+			iterator.remove();
+			evictions ++;
+		}
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	/**
+	 * DrawState remembers the frame an object drew the last time. Each object that draws 
+	 * sprites through the cache should have its own state.
+	 * @author agent
+	 * @since 18.10.2026
+	 */
+	static class DrawState
+	{
+		// ATTRIBUTES	--------------------
+		
+		private Sprite sprite;
+		private int imageIndex, width, height;
+		private Object interpolation;
+		private BufferedImage image;
+		
+		
+		// OTHER METHODS	----------------
+		
+		private boolean isDrawn(Sprite sprite, int imageIndex, int width, int height, 
+				Object interpolation)
+		{
+			return this.image != null && this.sprite == sprite && 
+					this.imageIndex == imageIndex && this.width == width && 
+					this.height == height && this.interpolation.equals(interpolation);
+		}
+		
+		private boolean isResized(Sprite sprite, int width, int height)
+		{
+			// The size is changing if it is different from the last time
+			return this.sprite == sprite && (this.width != width || this.height != height);
+		}
+		
+		private void update(Sprite sprite, int imageIndex, int width, int height, 
+				Object interpolation, BufferedImage image)
+		{
+			this.sprite = sprite;
+			this.imageIndex = imageIndex;
+			this.width = width;
+			this.height = height;
+			this.interpolation = interpolation;
+			this.image = image;
+		}
+	}
+	
+	private static class Key
+	{
+		// ATTRIBUTES	--------------------
+		
+		private Sprite sprite;
+		private int imageIndex, width, height;
+		private Object interpolation;
+		private int hashCode;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public Key(Sprite sprite, int imageIndex, int width, int height, 
+				Object interpolation)
+		{
+			this.sprite = sprite;
+			this.imageIndex = imageIndex;
+			this.width = width;
+			this.height = height;
+			this.interpolation = interpolation;
+			
+			// Sprites are identified by their identity
+			int hash = System.identityHashCode(sprite);
+			hash = 31 * hash + imageIndex;
+			hash = 31 * hash + width;
+			hash = 31 * hash + height;
+			this.hashCode = 31 * hash + interpolation.hashCode();
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			
+			Key other = (Key) obj;
+			return this.sprite == other.sprite && this.imageIndex == other.imageIndex && 
+					this.width == other.width && this.height == other.height && 
+					this.interpolation.equals(other.interpolation);
+		}
+	}
+}
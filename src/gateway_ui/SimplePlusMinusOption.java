@@ -21,7 +21,8 @@ public class SimplePlusMinusOption<T> extends AbstractPlusMinusOption<T>
 {
 	// ATTRIBUTES	--------------------------------
 	
-	private Font textFont;
+	private TextLabel choiceLabel;
+	private int labelIndex;
 	private Color textColor;
 	
 	
@@ -49,7 +50,8 @@ public class SimplePlusMinusOption<T> extends AbstractPlusMinusOption<T>
 				previousButton, width, margins);
 		
 		this.textColor = textColor;
-		this.textFont = font;
+		this.choiceLabel = new TextLabel(getCurrentChoise().toString(), font);
+		this.labelIndex = getCurrentIndex();
 	}
 	
 	@Override
@@ -68,12 +70,16 @@ public class SimplePlusMinusOption<T> extends AbstractPlusMinusOption<T>
 		AffineTransform lastTransform = getTransformation().transform(g2d);
 		
 		// Draws the current choice as a string
-		g2d.setColor(this.textColor);
-		g2d.setFont(this.textFont);
 		Vector3D relTextPos = getRelativeOptionPosition();//.plus(new Vector3D(0, 
 				//getDimensions().getSecond() - 2 * getMargins().getSecond()));
-		g2d.drawString(getCurrentChoise().toString(), relTextPos.getFirstInt(), 
-				relTextPos.getSecondInt());
+		// The label is only updated when the choice or its text changes
+		if (getCurrentIndex() != this.labelIndex)
+		{
+			this.choiceLabel.setText(getCurrentChoise().toString());
+			this.labelIndex = getCurrentIndex();
+		}
+		this.choiceLabel.draw(g2d, relTextPos.getFirstInt(), relTextPos.getSecondInt(), 
+				this.textColor);
 		
 		g2d.setTransform(lastTransform);
 	}
@@ -81,6 +87,16 @@ public class SimplePlusMinusOption<T> extends AbstractPlusMinusOption<T>
 	
 	// OTHER METHODS	--------------------------
 	
+	/**
+	 * Updates the text shown for the current choice. This should be called when the string 
+	 * presentation of the chosen value changes without the choice itself changing.
+	 */
+	public void refreshChoiceText()
+	{
+		this.labelIndex = -1;
+		DirtyRegionTracker.invalidate(this);
+	}
+	
 	/**
 	 * Creates a new option that uses single sprite buttons.
 	 * @param options The options that can be chosen.
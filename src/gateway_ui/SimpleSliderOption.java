@@ -19,7 +19,8 @@ public class SimpleSliderOption<T> extends AbstractSliderOption<T>
 {
 	// ATTRIBUTES	------------------------
 	
-	private Font font;
+	private TextLabel choiceLabel;
+	private int labelIndex;
 	private Color textColor;
 	private Vector3D margins;
 	
@@ -47,7 +48,8 @@ public class SimpleSliderOption<T> extends AbstractSliderOption<T>
 				(dimensions.getSecond() - margins.getSecond() * 3) / 2), dimensions.getFirst() 
 				- 2 * margins.getFirst());
 		
-		this.font = font;
+		this.choiceLabel = new TextLabel(getCurrentChoise().toString(), font);
+		this.labelIndex = getCurrentIndex();
 		this.textColor = textColor;
 		this.margins = margins;
 	}
@@ -60,10 +62,14 @@ public class SimpleSliderOption<T> extends AbstractSliderOption<T>
 	{
 		AffineTransform lastTransform = getTransformation().transform(g2d);
 		
-		g2d.setColor(this.textColor);
-		g2d.setFont(this.font);
-		g2d.drawString(getCurrentChoise().toString(), this.margins.getFirstInt(), 
-				getDimensions().getSecondInt() - this.margins.getSecondInt());
+		// The label is only updated when the choice or its text changes
+		if (getCurrentIndex() != this.labelIndex)
+		{
+			this.choiceLabel.setText(getCurrentChoise().toString());
+			this.labelIndex = getCurrentIndex();
+		}
+		this.choiceLabel.draw(g2d, this.margins.getFirstInt(), 
+				getDimensions().getSecondInt() - this.margins.getSecondInt(), this.textColor);
 		
 		g2d.setTransform(lastTransform);
 	}
@@ -76,4 +82,17 @@ public class SimpleSliderOption<T> extends AbstractSliderOption<T>
 		this.margins = this.margins.times(scaling);
 		super.setDimensions(newDimensions);
 	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Updates the text shown for the current choice. This should be called when the string 
+	 * presentation of the chosen value changes without the choice itself changing.
+	 */
+	public void refreshChoiceText()
+	{
+		this.labelIndex = -1;
+		DirtyRegionTracker.invalidate(this);
+	}
 }
@@ -81,6 +81,14 @@ public class SimpleTextDrawerObject extends SimpleHandled implements UIComponent
 		return this.drawer.getTextDrawer();
 	}
 	
+	/**
+	 * @return The drawer that draws the object's text
+	 */
+	DependentTextDrawer<SimpleTextDrawerObject> getDrawer()
+	{
+		return this.drawer;
+	}
+	
 	/**
 	 * Changes the drawing depth of the object
 	 * @param depth The object's new drawing depth
@@ -0,0 +1,108 @@
+package gateway_ui;
+
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import genesis_util.Vector3D;
+import vision_sprite.Sprite;
+
+/**
+ * SpriteMask is a decoded version of a mask sprite where each pixel is stored as a single 
+ * bit. A pixel belongs to the mask if it isn't fully transparent. The masks are shared 
+ * between all the objects that use the same sprite and they are released once the sprite 
+ * is no longer used.
+ * @author agent
+ * @since 18.10.2026
+ */
+class SpriteMask
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final Map<Sprite, SpriteMask> masks = new WeakHashMap<>();
+	
+	private int width, height, wordsPerRow, imageNumber;
+	private double originX, originY, xScale, yScale;
+	private long[] bits;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	private SpriteMask(Sprite sprite)
+	{
+		BufferedImage first = sprite.getSubImage(0);
+		Vector3D dimensions = sprite.getDimensions();
+		Vector3D origin = sprite.getOrigin();
+		
+		this.width = first.getWidth();
+		this.height = first.getHeight();
+		this.wordsPerRow = (this.width + 63) >>> 6;
+		this.imageNumber = sprite.getImageNumber();
+		this.originX = origin.getFirst();
+		this.originY = origin.getSecond();
+		// The sprite may be drawn in a different size than the images are
+		this.xScale = this.width / dimensions.getFirst();
+		this.yScale = this.height / dimensions.getSecond();
+		this.bits = new long[this.imageNumber * this.height * this.wordsPerRow];
+		
+		int[] row = new int[this.width];
+		for (int i = 0; i < this.imageNumber; i++)
+		{
+			BufferedImage image = sprite.getSubImage(i);
+			for (int y = 0; y < this.height; y++)
+			{
+				image.getRGB(0, y, this.width, 1, row, 0, this.width);
+				int rowStart = (i * this.height + y) * this.wordsPerRow;
+				for (int x = 0; x < this.width; x++)
+				{
+					if ((row[x] >>> 24) != 0)
+						this.bits[rowStart + (x >>> 6)] |= 1L << (x & 63);
+				}
+			}
+		}
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Finds the decoded mask of a sprite. The sprite is decoded the first time its mask is 
+	 * requested.
+	 * @param sprite The mask sprite
+	 * @return The decoded mask of the sprite
+	 */
+	public static SpriteMask getMask(Sprite sprite)
+	{
+		synchronized (masks)
+		{
+			SpriteMask mask = masks.get(sprite);
+			if (mask == null)
+			{
+				mask = new SpriteMask(sprite);
+				masks.put(sprite, mask);
+			}
+			
+			return mask;
+		}
+	}
+	
+	/**
+	 * Checks whether the mask contains a point. The check doesn't create any new objects.
+	 * @param x The x-coordinate of the point relative to the sprite's origin
+	 * @param y The y-coordinate of the point relative to the sprite's origin
+	 * @param imageIndex The index of the image the point is checked from
+	 * @return Is the point inside the mask
+	 */
+	public boolean containsRelativePoint(double x, double y, int imageIndex)
+	{
+		double pixelX = (x + this.originX) * this.xScale;
+		double pixelY = (y + this.originY) * this.yScale;
+		if (!(pixelX >= 0 && pixelX < this.width && pixelY >= 0 && pixelY < this.height))
+			return false;
+		
+		int column = (int) pixelX;
+		int rowStart = ((imageIndex % this.imageNumber) * this.height + (int) pixelY) * 
+				this.wordsPerRow;
+		return (this.bits[rowStart + (column >>> 6)] & (1L << (column & 63))) != 0;
+	}
+}
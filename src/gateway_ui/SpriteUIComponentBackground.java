@@ -1,7 +1,6 @@
 package gateway_ui;
 
 import genesis_event.HandlerRelay;
-import genesis_util.Vector3D;
 
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
@@ -19,7 +18,7 @@ public class SpriteUIComponentBackground extends UIComponentBackground
 	// ATTRIBUTES	--------------------------
 	
 	private SingleSpriteDrawer drawer;
-	private Vector3D lastOrigin, lastDimensions;
+	private ScaledSpriteCache.DrawState drawState;
 	
 	
 	// CONSTRUCTOR	--------------------------
@@ -36,37 +35,38 @@ public class SpriteUIComponentBackground extends UIComponentBackground
 	{
 		super(master, handlers);
 		
-		this.drawer = new SingleSpriteDrawer(
-				sprite.withDimensions(master.getDimensions()), this, handlers);
-		this.drawer.setOrigin(master.getOrigin());
-		this.lastOrigin = master.getOrigin();
-		this.lastDimensions = master.getDimensions();
+		// The drawer only keeps track of the animation, the sprite is scaled when drawn
+		this.drawer = new SingleSpriteDrawer(sprite, this, handlers);
+		this.drawState = new ScaledSpriteCache.DrawState();
 	}
 	
 	
 	// IMPLEMENTED METHODS	-----------------
-
+	
 	@Override
 	public void drawSelf(Graphics2D g2d)
 	{
-		// Updates the dimensions & origin, if necessary
-		if (!this.lastDimensions.equalsIn2D(getMaster().getDimensions()))
-			updateDimensions();
-		if (!this.lastOrigin.equalsIn2D(getMaster().getOrigin()))
-		{
-			this.drawer.setOrigin(getMaster().getOrigin());
-			this.lastOrigin = getMaster().getOrigin();
-		}
-		
-		// Draws the sprite transformed accordingly
+		// Draws the sprite transformed accordingly, scaled to fill the component's area
 		AffineTransform lastTransform = getMaster().getTransformation().transform(g2d);
 		
-		this.drawer.drawSprite(g2d);
+		ScaledSpriteCache.drawSprite(g2d, this.drawer.getSprite(), this.drawer.getImageIndex(), 
+				getMaster().getDimensions(), getMaster().getOrigin(), this.drawState);
 		
 		g2d.setTransform(lastTransform);
 	}
 	
 	
+	// GETTERS & SETTERS	-----------------
+	
+	/**
+	 * @return The spriteDrawer that keeps track of the sprite's animation
+	 */
+	SingleSpriteDrawer getSpriteDrawer()
+	{
+		return this.drawer;
+	}
+	
+	
 	// OTHER METHODS	---------------------
 	
 	/**
@@ -76,6 +76,7 @@ public class SpriteUIComponentBackground extends UIComponentBackground
 	public void setImageIndex(int index)
 	{
 		this.drawer.setImageIndex(index);
+		DirtyRegionTracker.invalidate(getMaster());
 	}
 	
 	/**
@@ -86,14 +87,4 @@ public class SpriteUIComponentBackground extends UIComponentBackground
 	{
 		this.drawer.setImageSpeed(speed);
 	}
-	
-	/**
-	 * Updates the background's size in case the component's dimensions changed.
-	 */
-	private void updateDimensions()
-	{
-		this.drawer.setSprite(this.drawer.getSprite().withDimensions(
-				getMaster().getDimensions()));
-		this.lastDimensions = getMaster().getDimensions();
-	}
 }
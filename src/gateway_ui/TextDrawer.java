@@ -6,19 +6,36 @@ import genesis_util.Vector3D;
 import java.awt.Color;
 import java.awt.Font;
 import java.awt.Graphics2D;
-import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Transparency;
 import java.awt.font.FontRenderContext;
-import java.awt.font.LineBreakMeasurer;
-import java.awt.font.TextAttribute;
+import java.awt.font.LineMetrics;
 import java.awt.font.TextLayout;
-import java.text.AttributedCharacterIterator;
-import java.text.AttributedString;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
- * TextDrawer draws text over a certain area. The text is broken into lines and paragraphs.
- * 
+ * TextDrawer draws text over a certain area. The text is broken into lines and paragraphs. 
+ * The wrapped lines are cached until the text, the dimensions or the rendering context change 
+ * and identical paragraphs share their layouts through the {@link TextLayoutCache}. 
+ * Only the lines that are inside the drawing clip (and the text area, if clipping is used) 
+ * are drawn, so very long texts can be drawn efficiently. The paragraphs are also only laid 
+ * out once they or the paragraphs below them become visible, or the text is measured. The 
+ * heights of the paragraphs below the visible area are estimated until then, which keeps 
+ * the positions of the visible paragraphs exact. The text can also be laid out in a 
+ * background thread so that large texts don't block the drawing. A bitmap font can be 
+ * given for drawing the text from pre-rendered glyphs.
+ *
  * @author Mikko Hilpinen
  * @since 12.3.2014
  */
@@ -26,11 +43,27 @@ public class TextDrawer
 {
 	// ATTRIBUTES	------------------------------------------------------
 	
+	private static final int PARAGRAPH_SPACING = 10;
+	private static final String ESTIMATION_SAMPLE = 
+			"The quick brown fox jumps over the lazy dog";
+	private static final ExecutorService layoutExecutor = createLayoutExecutor();
+	
+	
 	private List<ParagraphDrawer> paragraphs;
 	private Font font;
+	private BitmapFont bitmapFont;
 	private Color color;
-	private String paragraphSeparator;
+	private String paragraphSeparator, text;
 	private Vector3D dimensions, margins, origin;
+	private boolean buffered, clipsToArea, asynchronous;
+	private BufferedImage buffer;
+	private double bufferScale, bufferTop, rescaleThreshold, scrollOffset;
+	private volatile LayoutIndex index;
+	private LayoutIndex requestedIndex;
+	private Future<?> layoutTask;
+	private int lastIndexId;
+	private volatile boolean layoutFinished;
+	private List<InvalidationListener> invalidationListeners;
 	
 	
 	// CONSTRUCTOR	------------------------------------------------------
@@ -38,7 +71,7 @@ public class TextDrawer
 	/**
 	 * Creates a new textDrawer that can be used to draw text with the given 
 	 * parameters
-	 * 
+	 *
 	 * @param text The text that will be drawn (can be changed later)
 	 * @param paragraphSeparator The string that will indicate a paragraph change (null if 
 	 * only a single paragraph is used)
@@ -55,18 +88,35 @@ public class TextDrawer
 		// Initializes attributes
 		
 		this.font = font;
+		this.bitmapFont = null;
 		this.color = textColor;
 		this.dimensions = dimensions;
 		this.origin = origin;
 		this.margins = margins;
 		this.paragraphSeparator = paragraphSeparator;
+		this.buffered = false;
+		this.buffer = null;
+		this.bufferScale = 1;
+		this.bufferTop = 0;
+		this.rescaleThreshold = 0.25;
+		this.clipsToArea = false;
+		this.scrollOffset = 0;
+		this.asynchronous = false;
+		this.index = null;
+		this.requestedIndex = null;
+		this.layoutTask = null;
+		this.lastIndexId = 0;
+		this.layoutFinished = false;
+		this.text = null;
+		this.paragraphs = null;
+		this.invalidationListeners = new CopyOnWriteArrayList<>();
 		
 		setText(text);
 	}
 	
 	
 	// IMPLEMENTED METHODS	----------------------------------------------
-
+	
 	/**
 	 * Draws the text according to the drawer's settings
 	 * @param g2d The graphics object that does the drawing
@@ -78,19 +128,102 @@ public class TextDrawer
 				HelpMath.areApproximatelyEqual(g2d.getTransform().getScaleY(), 0))
 			return;
 		
-		g2d.setColor(this.color);
+		informOfFinishedLayout();
+		
+		if (isBuffered())
+		{
+			drawBuffer(g2d);
+			return;
+		}
 		
-		int h = this.margins.getSecondInt() - this.origin.getSecondInt();
-		int x = this.margins.getFirstInt() - this.origin.getFirstInt();
-		for (ParagraphDrawer paragraph : this.paragraphs)
+		// Asynchronous text may not have been laid out yet, in which case nothing is drawn
+		LayoutIndex index = getIndex(g2d.getFontRenderContext(), true);
+		if (index != null)
 		{
-			h += paragraph.drawText(g2d, x, h) + 10;
+			g2d.setColor(this.color);
+			drawParagraphs(g2d, index, this.origin.getFirst(), this.origin.getSecond());
 		}
 	}
-
+	
 	
 	// GETTERS & SETTERS	----------------------------------------------
 	
+	/**
+	 * Measures the size of the text without drawing it. The wrapped lines are cached, so 
+	 * the text won't need to be broken again when it is drawn using the same context.
+	 * @param frc The context the text will be rendered in
+	 * @return The measurements of the text
+	 */
+	public TextMeasurement measure(FontRenderContext frc)
+	{
+		LayoutIndex index = getIndex(frc, false);
+		index.layOutAll();
+		float[] tops = index.getParagraphTops();
+		int[] paragraphHeights = new int[tops.length - 1];
+		int lineCount = 0;
+		
+		for (int i = 0; i < paragraphHeights.length; i++)
+		{
+			paragraphHeights[i] = (int) Math.ceil(tops[i + 1] - tops[i] - PARAGRAPH_SPACING);
+			if (index.getLayout(i) != null)
+				lineCount += index.getLayout(i).getLineCount();
+		}
+		
+		int totalHeight = 0;
+		if (paragraphHeights.length > 0)
+			totalHeight = (int) Math.ceil(tops[paragraphHeights.length] - PARAGRAPH_SPACING);
+		
+		return new TextMeasurement(lineCount, paragraphHeights, totalHeight);
+	}
+	
+	/**
+	 * Finds the rendering context the text is laid out in when it is drawn with the given 
+	 * graphics object. Measuring the text in this context gives the same lines as drawing 
+	 * it, and the measured lines are reused when the text is drawn.
+	 * @param g2d The graphics object that will draw the text
+	 * @return The context the text is laid out in
+	 */
+	public FontRenderContext getLayoutContext(Graphics2D g2d)
+	{
+		if (!isBuffered())
+			return g2d.getFontRenderContext();
+		
+		// Buffered text is laid out in the scaled space of the image
+		double scale = getScale(g2d.getTransform());
+		if (this.buffer != null && !needsRescaling(scale))
+			scale = this.bufferScale;
+		return getBufferContext(g2d, scale);
+	}
+	
+	/**
+	 * @return The area the text is drawn in, relative to the drawer's position. Text that 
+	 * isn't clipped to the text area may reach outside it.
+	 */
+	public Rectangle2D getDrawnArea()
+	{
+		Rectangle2D area = new Rectangle2D.Double(-this.origin.getFirst(), 
+				-this.origin.getSecond(), getDimensions().getFirst(), 
+				getDimensions().getSecond());
+		if (clipsToArea())
+			return area;
+		
+		// Unclipped text reaches as far as the paragraphs do
+		LayoutIndex index = this.index;
+		if (index != null)
+		{
+			float textHeight;
+			synchronized (index)
+			{
+				float[] tops = index.getParagraphTops();
+				textHeight = Math.max(0, tops[tops.length - 1] - PARAGRAPH_SPACING);
+			}
+			area.add(new Rectangle2D.Double(area.getX(), area.getY() + 
+					this.margins.getSecond() - this.scrollOffset, area.getWidth(), textHeight));
+		}
+		
+		return area;
+	}
+	
 	/**
 	 * @return The size of the text area (including margins)
 	 */
@@ -114,27 +247,182 @@ public class TextDrawer
 	public void setOrigin(Vector3D origin)
 	{
 		this.origin = origin;
+		informInvalidationListeners();
+	}
+	
+	/**
+	 * @return Is the text drawn through a cached image
+	 */
+	public boolean isBuffered()
+	{
+		return this.buffered;
+	}
+	
+	/**
+	 * Changes whether the text should be rendered into an image once and then drawn 
+	 * through that image. Buffering is useful for static text, since the image is only 
+	 * rendered again when the text, the dimensions or the scaling changes.
+	 * @param buffered Should the text be drawn through a cached image
+	 */
+	public void setBuffered(boolean buffered)
+	{
+		if (buffered == this.buffered)
+			return;
+		
+		this.buffered = buffered;
+		this.buffer = null;
+		informInvalidationListeners();
+	}
+	
+	/**
+	 * Changes how much the scaling of the drawn text may change before a buffered image is 
+	 * rendered again
+	 * @param threshold The relative scaling change that is tolerated (0.25 by default)
+	 */
+	public void setRescaleThreshold(double threshold)
+	{
+		this.rescaleThreshold = threshold;
+	}
+	
+	/**
+	 * @return How much the text is scrolled upwards
+	 */
+	public double getScrollOffset()
+	{
+		return this.scrollOffset;
+	}
+	
+	/**
+	 * Scrolls the text vertically. This is useful when the text is clipped to the text area.
+	 * @param scrollOffset How much the text is scrolled upwards
+	 * @see #setClipsToArea(boolean)
+	 */
+	public void setScrollOffset(double scrollOffset)
+	{
+		if (scrollOffset != this.scrollOffset)
+		{
+			this.scrollOffset = scrollOffset;
+			this.buffer = null;
+			informInvalidationListeners();
+		}
+	}
+	
+	/**
+	 * @return Is the text clipped so that it is only drawn inside the text area
+	 */
+	public boolean clipsToArea()
+	{
+		return this.clipsToArea;
+	}
+	
+	/**
+	 * Changes whether the text should be clipped so that it is only drawn inside the text 
+	 * area (inside the margins). Only the lines that are visible inside the area will be 
+	 * drawn.
+	 * @param clipsToArea Should the text be clipped to the text area
+	 */
+	public void setClipsToArea(boolean clipsToArea)
+	{
+		this.clipsToArea = clipsToArea;
+		this.buffer = null;
+		informInvalidationListeners();
 	}
 	
 	/**
-	 * Changes the text that will be drawn
-	 * 
+	 * @return The bitmap font the text is drawn with. Null if the text is drawn with the 
+	 * font normally.
+	 */
+	public BitmapFont getBitmapFont()
+	{
+		return this.bitmapFont;
+	}
+	
+	/**
+	 * Changes the bitmap font the text is drawn with. The paragraphs the bitmap font can't 
+	 * display are still drawn with the font. Bitmap fonts are only faster than normal text 
+	 * with kerned fonts.
+	 * @param bitmapFont The bitmap font used for drawing the text. Null if the text should 
+	 * be drawn with the font normally.
+	 * @see BitmapFont
+	 */
+	public void setBitmapFont(BitmapFont bitmapFont)
+	{
+		if (bitmapFont == this.bitmapFont)
+			return;
+		
+		this.bitmapFont = bitmapFont;
+		this.buffer = null;
+		informInvalidationListeners();
+	}
+	
+	/**
+	 * @return Is the text laid out in a background thread
+	 */
+	public boolean isLaidOutAsynchronously()
+	{
+		return this.asynchronous;
+	}
+	
+	/**
+	 * Changes whether the text should be laid out in a background thread. When the text is 
+	 * laid out asynchronously, the previous layout is drawn until the new one is ready. 
+	 * Nothing is drawn before the first layout has been finished. A layout that is 
+	 * replaced by a newer request before it finishes is cancelled.
+	 * @param asynchronous Should the text be laid out in a background thread
+	 */
+	public void setLaidOutAsynchronously(boolean asynchronous)
+	{
+		this.asynchronous = asynchronous;
+	}
+	
+	/**
+	 * Changes the text that will be drawn. The paragraphs that didn't change keep their 
+	 * cached layouts.
+	 *
 	 * @param newText The new text that will be drawn
 	 */
 	public void setText(String newText)
 	{
-		this.paragraphs = new ArrayList<>();
+		if (newText.equals(this.text))
+			return;
+		
+		this.text = newText;
+		this.buffer = null;
 		
-		if (this.paragraphSeparator == null)
-			this.paragraphs.add(new ParagraphDrawer(newText));
-		else
+		List<String> newParagraphs = splitParagraphs(newText);
+		if (this.paragraphs == null)
+			this.paragraphs = new ArrayList<>();
+		
+		// Finds the unchanged paragraphs at the beginning and at the end of the text
+		List<ParagraphDrawer> oldParagraphs = this.paragraphs;
+		int unchangedStart = 0;
+		while (unchangedStart < oldParagraphs.size() && 
+				unchangedStart < newParagraphs.size() && 
+				oldParagraphs.get(unchangedStart).getText().equals(
+				newParagraphs.get(unchangedStart)))
 		{
-			String[] paragraphs = newText.split("\\" + this.paragraphSeparator);
-			for (int i = 0; i < paragraphs.length; i++)
-			{
-				this.paragraphs.add(new ParagraphDrawer(paragraphs[i]));
-			}
+			unchangedStart ++;
+		}
+		int unchangedEnd = 0;
+		while (unchangedEnd < oldParagraphs.size() - unchangedStart && 
+				unchangedEnd < newParagraphs.size() - unchangedStart && 
+				oldParagraphs.get(oldParagraphs.size() - 1 - unchangedEnd).getText().equals(
+				newParagraphs.get(newParagraphs.size() - 1 - unchangedEnd)))
+		{
+			unchangedEnd ++;
 		}
+		
+		// Only the changed paragraphs are replaced
+		this.paragraphs = new ArrayList<>(newParagraphs.size());
+		this.paragraphs.addAll(oldParagraphs.subList(0, unchangedStart));
+		for (int i = unchangedStart; i < newParagraphs.size() - unchangedEnd; i++)
+		{
+			this.paragraphs.add(new ParagraphDrawer(newParagraphs.get(i)));
+		}
+		this.paragraphs.addAll(oldParagraphs.subList(oldParagraphs.size() - unchangedEnd, 
+				oldParagraphs.size()));
+		
+		informInvalidationListeners();
 	}
 	
 	/**
@@ -150,7 +438,354 @@ public class TextDrawer
 			setOrigin(getOrigin().times(scaling));
 		}
 		
+		// The lines are wrapped again once the layout is needed, if the width changed
 		this.dimensions = newDimensions;
+		this.buffer = null;
+		informInvalidationListeners();
+	}
+	
+	/**
+	 * Adds a new listener that will be informed whenever the drawn text changes. The 
+	 * listener is also informed when a text laid out in a background thread becomes 
+	 * available, but not in the background thread. That is done when the text is drawn 
+	 * or {@link #informOfFinishedLayout()} is called the next time.
+	 * @param listener The listener that will be informed
+	 */
+	public void addInvalidationListener(InvalidationListener listener)
+	{
+		this.invalidationListeners.add(listener);
+	}
+	
+	/**
+	 * Removes a listener from the informed listeners
+	 * @param listener The listener that will no longer be informed
+	 */
+	public void removeInvalidationListener(InvalidationListener listener)
+	{
+		this.invalidationListeners.remove(listener);
+	}
+	
+	
+	// OTHER METHODS	------------------------------
+	
+	private float getWrappingWidth()
+	{
+		return getDimensions().getFirstInt() - 2 * this.margins.getFirstInt();
+	}
+	
+	private List<String> splitParagraphs(String text)
+	{
+		List<String> paragraphs = new ArrayList<>();
+		if (this.paragraphSeparator == null || this.paragraphSeparator.isEmpty())
+		{
+			paragraphs.add(text);
+			return paragraphs;
+		}
+		
+		int start = 0;
+		int separatorIndex = text.indexOf(this.paragraphSeparator);
+		while (separatorIndex >= 0)
+		{
+			paragraphs.add(text.substring(start, separatorIndex));
+			start = separatorIndex + this.paragraphSeparator.length();
+			separatorIndex = text.indexOf(this.paragraphSeparator, start);
+		}
+		paragraphs.add(text.substring(start));
+		
+		// Empty paragraphs at the end of the text are ignored
+		while (paragraphs.size() > 1 && paragraphs.get(paragraphs.size() - 1).isEmpty())
+		{
+			paragraphs.remove(paragraphs.size() - 1);
+		}
+		
+		return paragraphs;
+	}
+	
+	private LayoutIndex getIndex(FontRenderContext frc, boolean allowAsynchronous)
+	{
+		// The index is only updated when the text, the width or the rendering context changes
+		LayoutIndex index = this.index;
+		if (index != null && index.isValidFor(this.paragraphs, frc, getWrappingWidth()))
+			return index;
+		
+		// Asynchronous layout uses the previous index until the new one is ready
+		if (allowAsynchronous && isLaidOutAsynchronously())
+		{
+			requestIndex(frc);
+			return index;
+		}
+		
+		// The paragraphs are laid out once they are drawn or measured
+		LayoutIndex newIndex = new LayoutIndex(this.paragraphs, frc, getWrappingWidth(), 
+				nextIndexId());
+		publishIndex(newIndex);
+		
+		return newIndex;
+	}
+	
+	/**
+	 * Informs the invalidation listeners if a text laid out in a background thread has 
+	 * become available since the last call. This is done automatically when the text is 
+	 * drawn, but objects that don't draw the text each frame should call this in the 
+	 * game's thread.
+	 */
+	public void informOfFinishedLayout()
+	{
+		if (this.layoutFinished)
+		{
+			this.layoutFinished = false;
+			informInvalidationListeners();
+		}
+	}
+	
+	private void informInvalidationListeners()
+	{
+		for (InvalidationListener listener : this.invalidationListeners)
+		{
+			listener.onInvalidated();
+		}
+	}
+	
+	private synchronized int nextIndexId()
+	{
+		this.lastIndexId ++;
+		return this.lastIndexId;
+	}
+	
+	private synchronized void requestIndex(FontRenderContext frc)
+	{
+		// Each layout is only requested once
+		if (this.requestedIndex != null && this.requestedIndex.isValidFor(this.paragraphs, 
+				frc, getWrappingWidth()))
+			return;
+		
+		// The earlier request won't be needed anymore
+		if (this.layoutTask != null)
+			this.layoutTask.cancel(true);
+		
+		final LayoutIndex index = new LayoutIndex(this.paragraphs, frc, getWrappingWidth(), 
+				nextIndexId());
+		this.requestedIndex = index;
+		
+		this.layoutTask = layoutExecutor.submit(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				// The listeners are informed in the game's thread
+				if (index.layOutUnlessInterrupted() && publishRequestedIndex(index))
+					TextDrawer.this.layoutFinished = true;
+			}
+		});
+	}
+	
+	private synchronized boolean publishRequestedIndex(LayoutIndex index)
+	{
+		// Only the latest layout is used. The earlier ones are discarded.
+		if (index.getId() != this.lastIndexId)
+			return false;
+		
+		this.requestedIndex = null;
+		this.layoutTask = null;
+		this.index = index;
+		return true;
+	}
+	
+	private synchronized void publishIndex(LayoutIndex index)
+	{
+		// Older layouts won't replace newer ones
+		if (this.index == null || this.index.getId() < index.getId())
+			this.index = index;
+		
+		// The requests made before this layout would be discarded, so they are cancelled
+		if (this.requestedIndex != null && this.requestedIndex.getId() < index.getId())
+		{
+			this.layoutTask.cancel(true);
+			this.layoutTask = null;
+			this.requestedIndex = null;
+		}
+	}
+	
+	private void drawParagraphs(Graphics2D g2d, LayoutIndex index, double originX, 
+			double originY)
+	{
+		Shape lastClip = null;
+		if (clipsToArea())
+		{
+			lastClip = g2d.getClip();
+			g2d.clip(new Rectangle2D.Double(-originX, this.margins.getSecond() - originY, 
+					getDimensions().getFirst(), 
+					getDimensions().getSecond() - 2 * this.margins.getSecond()));
+		}
+		
+		float x = (float) (this.margins.getFirst() - originX);
+		float y = (float) (this.margins.getSecond() - originY - this.scrollOffset);
+		
+		// Finds the visible area in relation to the top of the text
+		float visibleTop = Float.NEGATIVE_INFINITY;
+		float visibleBottom = Float.POSITIVE_INFINITY;
+		Rectangle clipBounds = g2d.getClipBounds();
+		if (clipBounds != null)
+		{
+			visibleTop = clipBounds.y - y;
+			visibleBottom = clipBounds.y + clipBounds.height - y;
+		}
+		
+		// The paragraphs above the visible area are laid out as well so that the visible
+		// paragraphs are always drawn at their real positions. Only the visible paragraphs
+		// are drawn.
+		synchronized (index)
+		{
+			index.layOutUntil(visibleBottom);
+			float[] tops = index.getParagraphTops();
+			int paragraphAmount = tops.length - 1;
+			for (int i = findParagraphAt(tops, paragraphAmount, visibleTop);
+					i < paragraphAmount && tops[i] < visibleBottom; i++)
+			{
+				ParagraphLayout layout = index.getLayout(i);
+				if (layout != null)
+					drawLines(g2d, layout, x, y + tops[i], visibleTop - tops[i], 
+							visibleBottom - tops[i]);
+			}
+		}
+		
+		if (clipsToArea())
+			g2d.setClip(lastClip);
+	}
+	
+	private static void drawLines(Graphics2D g2d, ParagraphLayout layout, float x, float y, 
+			float visibleTop, float visibleBottom)
+	{
+		// The lines may have different heights, so the first visible line is searched
+		int lineCount = layout.getLineCount();
+		int firstVisible = layout.getLineAt(visibleTop);
+		
+		// The layout knows whether the bitmap font can display the paragraph
+		BitmapFont bitmapFont = layout.getBitmapFont();
+		for (int i = firstVisible; i < lineCount && layout.getLineTop(i) < visibleBottom; i++)
+		{
+			float baseline = y + layout.getBaseline(i);
+			if (bitmapFont != null)
+			{
+				bitmapFont.drawString(g2d, layout.getText(), layout.getLineStart(i), 
+						layout.getLineEnd(i), x, baseline, g2d.getColor());
+				continue;
+			}
+			
+			TextLayout line = layout.getLine(i);
+		    float dx = line.isLeftToRight() ? 
+		    		 0 : (layout.getWrappingWidth() - line.getAdvance());
+		
+		    line.draw(g2d, x + dx, baseline);
+		}
+	}
+	
+	private static int findParagraphAt(float[] tops, int paragraphAmount, float y)
+	{
+		// Finds the last paragraph that starts before the given y-coordinate
+		int index = Arrays.binarySearch(tops, 0, paragraphAmount, y);
+		if (index < 0)
+			index = -index - 2;
+		
+		return Math.max(0, index);
+	}
+	
+	private static ExecutorService createLayoutExecutor()
+	{
+		int threadAmount = Math.max(1, Math.min(4, 
+				Runtime.getRuntime().availableProcessors() - 1));
+		
+		// The layout threads shouldn't keep the program running
+		return Executors.newFixedThreadPool(threadAmount, new ThreadFactory()
+		{
+			@Override
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "TextDrawer layout");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	private void drawBuffer(Graphics2D g2d)
+	{
+		// The image is rendered again if the scaling has changed too much
+		double scale = getScale(g2d.getTransform());
+		if (this.buffer == null || needsRescaling(scale))
+		{
+			// Asynchronous text keeps drawing the previous state until the layout is ready
+			FontRenderContext frc = getBufferContext(g2d, scale);
+			LayoutIndex index = getIndex(frc, true);
+			
+			if (index != null && index.isValidFor(this.paragraphs, frc, getWrappingWidth()))
+				updateBuffer(g2d, index, scale);
+			else if (this.buffer == null)
+			{
+				if (index != null)
+				{
+					g2d.setColor(this.color);
+					drawParagraphs(g2d, index, this.origin.getFirst(), this.origin.getSecond());
+				}
+				return;
+			}
+		}
+		
+		AffineTransform imageTransform = AffineTransform.getTranslateInstance(
+				-this.origin.getFirst(), this.bufferTop - this.origin.getSecond());
+		imageTransform.scale(1 / this.bufferScale, 1 / this.bufferScale);
+		g2d.drawImage(this.buffer, imageTransform, null);
+	}
+	
+	private boolean needsRescaling(double scale)
+	{
+		return Math.abs(scale - this.bufferScale) > this.bufferScale * this.rescaleThreshold;
+	}
+	
+	private static double getScale(AffineTransform transform)
+	{
+		return Math.max(Math.hypot(transform.getScaleX(), transform.getShearY()), 
+				Math.hypot(transform.getShearX(), transform.getScaleY()));
+	}
+	
+	private static FontRenderContext getBufferContext(Graphics2D g2d, double scale)
+	{
+		// The lines are wrapped in the scaled space of the image
+		FontRenderContext targetContext = g2d.getFontRenderContext();
+		return new FontRenderContext(AffineTransform.getScaleInstance(scale, scale), 
+				targetContext.getAntiAliasingHint(), 
+				targetContext.getFractionalMetricsHint());
+	}
+	
+	private void updateBuffer(Graphics2D g2d, LayoutIndex index, double scale)
+	{
+		// Clipped text only needs the text area, otherwise the whole text is buffered, 
+		// including the text that is scrolled above the area
+		double top = 0;
+		double bottom = getDimensions().getSecond();
+		if (!clipsToArea())
+		{
+			index.layOutAll();
+			float[] tops = index.getParagraphTops();
+			double textTop = this.margins.getSecond() - this.scrollOffset;
+			top = Math.min(top, textTop);
+			bottom = Math.max(bottom, textTop + 
+					Math.max(0, tops[tops.length - 1] - PARAGRAPH_SPACING));
+		}
+		int imageWidth = Math.max(1, (int) Math.ceil(getDimensions().getFirst() * scale));
+		int imageHeight = Math.max(1, (int) Math.ceil((bottom - top) * scale));
+		
+		this.buffer = g2d.getDeviceConfiguration().createCompatibleImage(imageWidth, 
+				imageHeight, Transparency.TRANSLUCENT);
+		this.bufferScale = scale;
+		this.bufferTop = top;
+		
+		Graphics2D imageG2d = this.buffer.createGraphics();
+		imageG2d.setRenderingHints(g2d.getRenderingHints());
+		imageG2d.scale(scale, scale);
+		imageG2d.setColor(this.color);
+		drawParagraphs(imageG2d, index, 0, top);
+		imageG2d.dispose();
 	}
 	
 	
@@ -161,7 +796,9 @@ public class TextDrawer
 		// ATTRIBUTES	--------------------------
 		
 		private String text;
-		private AttributedCharacterIterator styledTextIterator;
+		private ParagraphLayout layout;
+		private FontRenderContext layoutContext;
+		private BitmapFont layoutBitmapFont;
 		
 		
 		// CONSTRUCTOR	--------------------------
@@ -169,64 +806,210 @@ public class TextDrawer
 		public ParagraphDrawer(String paragraph)
 		{
 			this.text = paragraph;
-			
-			// Updates the attributedString
-			AttributedString attstring = new AttributedString(this.text);
-			attstring.addAttribute(TextAttribute.FONT, TextDrawer.this.font);
-			this.styledTextIterator = attstring.getIterator();
+			this.layout = null;
+			this.layoutContext = null;
+			this.layoutBitmapFont = null;
+		}
+		
+		
+		// GETTERS & SETTERS	------------------
+		
+		public String getText()
+		{
+			return this.text;
 		}
 		
 		
 		// OTHER METHODS	----------------------
 		
-		public int drawText(Graphics2D g2d, int horizontalTranslation, int verticalTranslation)
+		/**
+		 * @return The layout of the paragraph or null if the paragraph is empty
+		 */
+		public synchronized ParagraphLayout getLayout(FontRenderContext frc, 
+				float wrappingWidth, BitmapFont bitmapFont)
 		{
 			// Empty strings are not drawn
 			if (this.text.isEmpty())
-				return 0;
+				return null;
+			
+			// The shared cache is only consulted when the rendering context or the font
+			// changes
+			if (this.layout == null || !frc.equals(this.layoutContext) || 
+					this.layout.getWrappingWidth() != wrappingWidth || 
+					bitmapFont != this.layoutBitmapFont)
+			{
+				this.layout = TextLayoutCache.getLayout(this.text, TextDrawer.this.font, 
+						wrappingWidth, frc, bitmapFont);
+				this.layoutContext = frc;
+				this.layoutBitmapFont = bitmapFont;
+			}
 			
-			// From: http://docs.oracle.com/javase/7/docs/api/java/awt/font/LineBreakMeasurer.html
-			Point pen = new Point(horizontalTranslation, verticalTranslation);
-			FontRenderContext frc = g2d.getFontRenderContext();
-			LineBreakMeasurer measurer = new LineBreakMeasurer(this.styledTextIterator, frc);
+			return this.layout;
+		}
+	}
+	
+	private class LayoutIndex
+	{
+		// ATTRIBUTES	--------------------------
+		
+		private final List<ParagraphDrawer> paragraphs;
+		private final FontRenderContext context;
+		private final float wrappingWidth;
+		private final int id;
+		private final BitmapFont bitmapFont;
+		private ParagraphLayout[] layouts;
+		private float[] heights, tops;
+		private int laidOutPrefix;
+		
+		
+		// CONSTRUCTOR	--------------------------
+		
+		public LayoutIndex(List<ParagraphDrawer> paragraphs, FontRenderContext context, 
+				float wrappingWidth, int id)
+		{
+			this.paragraphs = paragraphs;
+			this.context = context;
+			this.wrappingWidth = wrappingWidth;
+			this.id = id;
+			this.bitmapFont = TextDrawer.this.bitmapFont;
+			this.layouts = new ParagraphLayout[paragraphs.size()];
+			this.heights = new float[paragraphs.size()];
+			this.tops = new float[paragraphs.size() + 1];
+			this.laidOutPrefix = 0;
 			
-			float wrappingWidth = getDimensions().getFirstInt() - 2 * 
-					TextDrawer.this.margins.getFirstInt();
+			// Until the paragraphs are laid out, they are expected to consist of average
+			// characters
+			LineMetrics metrics = TextDrawer.this.font.getLineMetrics(ESTIMATION_SAMPLE, 
+					context);
+			float lineHeight = metrics.getAscent() + metrics.getDescent() + 
+					metrics.getLeading();
+			double characterWidth = TextDrawer.this.font.getStringBounds(ESTIMATION_SAMPLE, 
+					context).getWidth() / ESTIMATION_SAMPLE.length();
 			
-			while (measurer.getPosition() < this.text.length())
+			for (int i = 0; i < this.heights.length; i++)
 			{
-				TextLayout layout = measurer.nextLayout(wrappingWidth);
+				int length = paragraphs.get(i).getText().length();
+				if (length > 0)
+					this.heights[i] = lineHeight * (float) Math.max(1, 
+							Math.ceil(length * characterWidth / Math.max(1, wrappingWidth)));
+			}
+			updateTops(0);
+		}
+		
+		
+		// GETTERS & SETTERS	------------------
+		
+		public int getId()
+		{
+			return this.id;
+		}
+		
+		/**
+		 * @return The y-coordinates of the paragraphs, followed by the end of the text. The 
+		 * paragraphs that haven't been laid out yet have estimated heights, so the values 
+		 * may change while the index is not locked.
+		 */
+		public float[] getParagraphTops()
+		{
+			return this.tops;
+		}
+		
+		public synchronized ParagraphLayout getLayout(int paragraphIndex)
+		{
+			return this.layouts[paragraphIndex];
+		}
+		
+		
+		// OTHER METHODS	----------------------
+		
+		public boolean isValidFor(List<ParagraphDrawer> paragraphs, FontRenderContext context, 
+				float wrappingWidth)
+		{
+			// The paragraph list is replaced whenever the text changes. The text is wrapped
+			// again if the bitmap font changes.
+			return this.paragraphs == paragraphs && this.wrappingWidth == wrappingWidth && 
+					this.context.equals(context) && this.bitmapFont == TextDrawer.this.bitmapFont;
+		}
+		
+		/**
+		 * Lays out the paragraphs from the beginning of the text until the given position. 
+		 * Since all the paragraphs above the position are laid out, the positions of the 
+		 * paragraphs that start above it are exact.
+		 * @param y A position relative to the top of the text
+		 */
+		public synchronized void layOutUntil(float y)
+		{
+			int first = this.laidOutPrefix;
+			while (this.laidOutPrefix < this.layouts.length && 
+					this.tops[this.laidOutPrefix] < y)
+			{
+				// The following paragraph starts right after the laid out one
+				int i = this.laidOutPrefix;
+				prepareLayout(i);
+				this.tops[i + 1] = this.tops[i] + this.heights[i] + PARAGRAPH_SPACING;
+				this.laidOutPrefix ++;
+			}
 			
-				// TODO: May randomly throw a nullPointerException
-				if (layout == null)
-					break;
+			if (this.laidOutPrefix > first)
+				updateTops(this.laidOutPrefix);
+		}
+		
+		/**
+		 * Lays out the remaining paragraphs one by one until all of them have been laid out 
+		 * or the thread is interrupted
+		 * @return Were all of the paragraphs laid out
+		 */
+		public synchronized boolean layOutUnlessInterrupted()
+		{
+			while (this.laidOutPrefix < this.layouts.length)
+			{
+				if (Thread.currentThread().isInterrupted())
+					return false;
 				
-			    pen.y += (layout.getAscent());
-			    float dx = layout.isLeftToRight() ?
-			    		 0 : (wrappingWidth - layout.getAdvance());
-			
-			    layout.draw(g2d, pen.x + dx, pen.y);
-			    pen.y += layout.getDescent() + layout.getLeading();
+				int i = this.laidOutPrefix;
+				prepareLayout(i);
+				this.tops[i + 1] = this.tops[i] + this.heights[i] + PARAGRAPH_SPACING;
+				this.laidOutPrefix ++;
 			}
 			
-			return pen.y - verticalTranslation;
+			return true;
+		}
+		
+		/**
+		 * Lays out all of the paragraphs so that the paragraph positions are final
+		 */
+		public synchronized void layOutAll()
+		{
+			if (this.laidOutPrefix == this.layouts.length)
+				return;
 			
-			// From oracle docs: 
-			// http://docs.oracle.com/javase/7/docs/api/java/awt/font/TextLayout.html
-			/*
-			FontRenderContext frc = g2d.getFontRenderContext();
-			TextLayout layout = new TextLayout(this.message, this.font, frc);
-			layout.draw(g2d, (float) topLeft.getX(), (float) topLeft.getY());
-
-			Rectangle2D bounds = layout.getBounds();
-			bounds.setRect(
-					bounds.getX() + topLeft.getX(), 
-					bounds.getY() + topLeft.getY(), 
-					bounds.getWidth(), bounds.getHeight());
-			g2d.draw(bounds);
-			*/
-			//g2d.setFont(this.font);
-			//g2d.drawString(this.message, - getOriginX(), - getOriginY());
+			for (int i = this.laidOutPrefix; i < this.layouts.length; i++)
+			{
+				prepareLayout(i);
+			}
+			
+			updateTops(this.laidOutPrefix);
+			this.laidOutPrefix = this.layouts.length;
+		}
+		
+		private void prepareLayout(int paragraphIndex)
+		{
+			// The estimated height is replaced with the real one
+			ParagraphLayout layout = this.paragraphs.get(paragraphIndex).getLayout(
+					this.context, this.wrappingWidth, this.bitmapFont);
+			this.layouts[paragraphIndex] = layout;
+			this.heights[paragraphIndex] = 0;
+			if (layout != null)
+				this.heights[paragraphIndex] = layout.getHeight();
+		}
+		
+		private void updateTops(int firstChanged)
+		{
+			// The paragraphs after a changed height are moved
+			for (int i = firstChanged; i < this.heights.length; i++)
+			{
+				this.tops[i + 1] = this.tops[i] + this.heights[i] + PARAGRAPH_SPACING;
+			}
 		}
 	}
 }
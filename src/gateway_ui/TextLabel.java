@@ -0,0 +1,129 @@
+package gateway_ui;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+
+/**
+ * TextLabel draws a single line of text. The glyphs of the text are only shaped when the 
+ * text or the rendering context changes, so drawing an unchanged label doesn't allocate 
+ * anything. A bitmap font can be given for drawing the text, in which case it is used 
+ * whenever it can display the text.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class TextLabel
+{
+	// ATTRIBUTES	------------------------
+	
+	private String text;
+	private Font font;
+	private BitmapFont bitmapFont;
+	private GlyphVector glyphs;
+	private FontRenderContext context;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new label
+	 * @param text The text shown in the label
+	 * @param font The font used when drawing the text
+	 */
+	public TextLabel(String text, Font font)
+	{
+		this.text = text;
+		this.font = font;
+		this.bitmapFont = null;
+		this.glyphs = null;
+		this.context = null;
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return The text shown in the label
+	 */
+	public String getText()
+	{
+		return this.text;
+	}
+	
+	/**
+	 * Changes the text shown in the label. The glyphs are only shaped again if the text 
+	 * actually changes.
+	 * @param text The new text shown in the label
+	 */
+	public void setText(String text)
+	{
+		if (text == this.text || text.equals(this.text))
+			return;
+		
+		this.text = text;
+		this.glyphs = null;
+	}
+	
+	/**
+	 * @return The font used when drawing the text
+	 */
+	public Font getFont()
+	{
+		return this.font;
+	}
+	
+	/**
+	 * @return The bitmap font used when drawing the text. Null if the text is drawn with 
+	 * the font.
+	 */
+	public BitmapFont getBitmapFont()
+	{
+		return this.bitmapFont;
+	}
+	
+	/**
+	 * Changes the bitmap font used when drawing the text
+	 * @param bitmapFont The bitmap font used when it can display the text. Null if the text 
+	 * should always be drawn with the font.
+	 */
+	public void setBitmapFont(BitmapFont bitmapFont)
+	{
+		this.bitmapFont = bitmapFont;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Draws the text
+	 * @param g2d The graphics object used for drawing
+	 * @param x The x-coordinate where the text starts
+	 * @param y The y-coordinate of the baseline of the text
+	 * @param color The color of the text
+	 */
+	public void draw(Graphics2D g2d, float x, float y, Color color)
+	{
+		BitmapFont bitmapFont = this.bitmapFont;
+		if (bitmapFont != null && bitmapFont.canDisplay(this.text))
+			bitmapFont.drawString(g2d, this.text, 0, this.text.length(), x, y, color);
+		else
+		{
+			g2d.setColor(color);
+			g2d.drawGlyphVector(getGlyphs(g2d.getFontRenderContext()), x, y);
+		}
+	}
+	
+	private GlyphVector getGlyphs(FontRenderContext frc)
+	{
+		// The glyphs depend on the rendering context
+		if (this.glyphs == null || !frc.equals(this.context))
+		{
+			this.glyphs = this.font.createGlyphVector(frc, this.text);
+			this.context = frc;
+		}
+		
+		return this.glyphs;
+	}
+}
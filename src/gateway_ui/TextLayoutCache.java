@@ -0,0 +1,234 @@
+package gateway_ui;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * TextLayoutCache holds the wrapped paragraph layouts shared by all textDrawers. Identical 
+ * texts drawn with the same font, width and rendering context are only laid out once. The 
+ * least recently used layouts are discarded once the estimated memory usage of the cache 
+ * exceeds its limit.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class TextLayoutCache
+{
+	// ATTRIBUTES	------------------------
+	
+	private static final Map<Key, ParagraphLayout> layouts = new LinkedHashMap<>(64, 0.75f, 
+			true);
+	private static long memoryLimit = 8 * 1024 * 1024;
+	private static long memoryUsage = 0;
+	private static long hits = 0, misses = 0, evictions = 0;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	private TextLayoutCache()
+	{
+		// The interface is static
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return How many times a layout was found from the cache
+	 */
+	public static synchronized long getHitCount()
+	{
+		return hits;
+	}
+	
+	/**
+	 * @return How many times a layout had to be created
+	 */
+	public static synchronized long getMissCount()
+	{
+		return misses;
+	}
+	
+	/**
+	 * @return How many layouts have been discarded because of the memory limit
+	 */
+	public static synchronized long getEvictionCount()
+	{
+		return evictions;
+	}
+	
+	/**
+	 * @return How many layouts are currently cached
+	 */
+	public static synchronized int getSize()
+	{
+		return layouts.size();
+	}
+	
+	/**
+	 * @return The estimated amount of memory used by the cached layouts in bytes
+	 */
+	public static synchronized long getEstimatedMemoryUsage()
+	{
+		return memoryUsage;
+	}
+	
+	/**
+	 * @return The amount of memory the cached layouts may use in bytes
+	 */
+	public static synchronized long getMemoryLimit()
+	{
+		return memoryLimit;
+	}
+	
+	/**
+	 * Changes the amount of memory the cached layouts may use. The least recently used 
+	 * layouts are discarded if necessary.
+	 * @param limit The new memory limit in bytes (8 MB by default)
+	 */
+	public static synchronized void setMemoryLimit(long limit)
+	{
+		memoryLimit = limit;
+		trim();
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Removes all layouts from the cache. The statistics are not reset.
+	 */
+	public static synchronized void clear()
+	{
+		layouts.clear();
+		memoryUsage = 0;
+	}
+	
+	/**
+	 * Resets the hit, miss and eviction counts
+	 */
+	public static synchronized void resetStatistics()
+	{
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+	
+	/**
+	 * Finds a layout for the given paragraph, creating a new one if there is no such 
+	 * layout in the cache
+	 * @param text The text in the paragraph (not empty)
+	 * @param font The font used in the text
+	 * @param wrappingWidth The maximum width of a line
+	 * @param frc The context in which the text is rendered
+	 * @param bitmapFont The bitmap font used in place of the font. Null if there is no such 
+	 * font.
+	 * @return A layout for the paragraph
+	 */
+	static ParagraphLayout getLayout(String text, Font font, float wrappingWidth, 
+			FontRenderContext frc, BitmapFont bitmapFont)
+	{
+		Key key = new Key(text, font, wrappingWidth, frc, bitmapFont);
+		
+		synchronized (TextLayoutCache.class)
+		{
+			ParagraphLayout layout = layouts.get(key);
+			if (layout != null)
+			{
+				hits ++;
+				return layout;
+			}
+			misses ++;
+		}
+		
+		// The layout is created outside the lock since line breaking is slow
+		ParagraphLayout layout = new ParagraphLayout(text, font, wrappingWidth, frc, 
+				bitmapFont);
+		
+		synchronized (TextLayoutCache.class)
+		{
+			// Another thread may have created the same layout in the meanwhile
+			ParagraphLayout existing = layouts.get(key);
+			if (existing != null)
+				return existing;
+			
+			layouts.put(key, layout);
+			memoryUsage += layout.getEstimatedSize();
+			trim();
+		}
+		
+		return layout;
+	}
+	
+	private static void trim()
+	{
+		Iterator<ParagraphLayout> iterator = layouts.values().iterator();
+		while (memoryUsage > memoryLimit && iterator.hasNext())
+		{
+			memoryUsage -= iterator.next().getEstimatedSize();
+			iterator.remove();
+			evictions ++;
+		}
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private static class Key
+	{
+		// ATTRIBUTES	--------------------
+		
+		private String text;
+		private Font font;
+		private float wrappingWidth;
+		private FontRenderContext context;
+		private BitmapFont bitmapFont;
+		private int hashCode;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public Key(String text, Font font, float wrappingWidth, FontRenderContext context, 
+				BitmapFont bitmapFont)
+		{
+			this.text = text;
+			this.font = font;
+			this.wrappingWidth = wrappingWidth;
+			this.context = context;
+			this.bitmapFont = bitmapFont;
+			
+			// Bitmap fonts are identified by their identity
+			int hash = text.hashCode();
+			hash = 31 * hash + font.hashCode();
+			hash = 31 * hash + Float.floatToIntBits(wrappingWidth);
+			hash = 31 * hash + context.hashCode();
+			this.hashCode = 31 * hash + System.identityHashCode(bitmapFont);
+		}
+		
+		
+		// IMPLEMENTED METHODS	------------
+		
+		@Override
+		public int hashCode()
+		{
+			return this.hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			
+			Key other = (Key) obj;
+			return this.hashCode == other.hashCode && 
+					this.wrappingWidth == other.wrappingWidth && 
+					this.bitmapFont == other.bitmapFont && this.text.equals(other.text) && 
+					this.font.equals(other.font) && this.context.equals(other.context);
+		}
+	}
+}
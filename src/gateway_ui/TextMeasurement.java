@@ -0,0 +1,68 @@
+package gateway_ui;
+
+/**
+ * TextMeasurements describe how much space a text takes once it has been broken into lines 
+ * and paragraphs. The measurements don't include any margins.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class TextMeasurement
+{
+	// ATTRIBUTES	--------------------
+	
+	private int lineCount, totalHeight;
+	private int[] paragraphHeights;
+	
+	
+	// CONSTRUCTOR	--------------------
+	
+	/**
+	 * Creates a new measurement
+	 * @param lineCount The amount of lines in the text
+	 * @param paragraphHeights The heights of each paragraph in the text
+	 * @param totalHeight The height of the whole text, including the space between 
+	 * paragraphs
+	 */
+	public TextMeasurement(int lineCount, int[] paragraphHeights, int totalHeight)
+	{
+		this.lineCount = lineCount;
+		this.paragraphHeights = paragraphHeights;
+		this.totalHeight = totalHeight;
+	}
+	
+	
+	// GETTERS & SETTERS	------------
+	
+	/**
+	 * @return The amount of lines in the text
+	 */
+	public int getLineCount()
+	{
+		return this.lineCount;
+	}
+	
+	/**
+	 * @return The amount of paragraphs in the text
+	 */
+	public int getParagraphAmount()
+	{
+		return this.paragraphHeights.length;
+	}
+	
+	/**
+	 * @param paragraphIndex The index of a paragraph
+	 * @return The height of the paragraph
+	 */
+	public int getParagraphHeight(int paragraphIndex)
+	{
+		return this.paragraphHeights[paragraphIndex];
+	}
+	
+	/**
+	 * @return The height of the whole text, including the space between paragraphs
+	 */
+	public int getTotalHeight()
+	{
+		return this.totalHeight;
+	}
+}
@@ -0,0 +1,575 @@
+package gateway_ui;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import genesis_event.MouseListenerHandler;
+import genesis_util.Transformation;
+import genesis_util.Vector3D;
+
+/**
+ * UIComponentIndex divides the screen into a uniform grid and remembers which components' 
+ * bounding boxes overlap each cell. This way the components at a certain position can be 
+ * found without going through all of them.<br> 
+ * Buttons update their position in the index automatically when they are transformed. 
+ * Other components must call {@link #update(UIComponent)} themselves each time their 
+ * transformation changes. Changes in the size or the origin of any component must also be 
+ * reported that way, otherwise the component is still found from its old area. Dead 
+ * components are removed from the index over time. Components that cover a very large 
+ * area are not placed in the grid but are tested on every search instead.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class UIComponentIndex
+{
+	// ATTRIBUTES	------------------------
+	
+	// Components that cover more cells than this on either axis aren't placed in the grid
+	private static final int MAX_CELL_SPAN = 64;
+	
+	private double cellSize;
+	private CellMap cells;
+	private List<UIComponent> largeComponents;
+	private Map<UIComponent, Bounds> bounds;
+	private UIMouseRouter router;
+	private MouseListenerHandler mouseHandler;
+	private Set<AbstractButton> reroutedButtons;
+	private int changesSincePurge;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new index
+	 * @param cellSize The width and height of a single grid cell. The cells should be around 
+	 * the size of the typical component.
+	 */
+	public UIComponentIndex(double cellSize)
+	{
+		this.cellSize = cellSize;
+		this.cells = new CellMap();
+		this.largeComponents = new ArrayList<>();
+		this.bounds = new IdentityHashMap<>();
+		this.router = null;
+		this.mouseHandler = null;
+		this.reroutedButtons = Collections.newSetFromMap(
+				new IdentityHashMap<AbstractButton, Boolean>());
+		this.changesSincePurge = 0;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	/**
+	 * Adds a component to the index. Components other than buttons must be updated 
+	 * manually after they have been transformed.
+	 * @param component The component that is added
+	 * @see #update(UIComponent)
+	 */
+	public synchronized void add(UIComponent component)
+	{
+		if (this.bounds.containsKey(component))
+			return;
+		
+		Bounds bounds = new Bounds(component);
+		this.bounds.put(component, bounds);
+		addToCells(component, bounds);
+		
+		// Buttons keep their position up to date themselves
+		if (component instanceof AbstractButton)
+		{
+			((AbstractButton) component).setComponentIndex(this);
+			if (isRouted())
+				reroute((AbstractButton) component);
+		}
+		
+		countChange();
+	}
+	
+	/**
+	 * Removes a component from the index
+	 * @param component The component that is removed
+	 */
+	public synchronized void remove(UIComponent component)
+	{
+		Bounds bounds = this.bounds.remove(component);
+		if (bounds == null)
+			return;
+		
+		removeFromCells(component, bounds);
+		
+		if (component instanceof AbstractButton)
+		{
+			((AbstractButton) component).setComponentIndex(null);
+			restore((AbstractButton) component);
+		}
+	}
+	
+	/**
+	 * Updates the position of the component in the index. This must be called after the 
+	 * component's size or origin changes and, for components other than buttons, after 
+	 * its transformation changes.
+	 * @param component The component that was changed
+	 */
+	public synchronized void update(UIComponent component)
+	{
+		Bounds oldBounds = this.bounds.get(component);
+		if (oldBounds == null)
+			return;
+		
+		if (component.getIsDeadStateOperator().getState())
+		{
+			remove(component);
+			return;
+		}
+		
+		// The cells are only changed if the component moved to other cells
+		Bounds newBounds = new Bounds(component);
+		this.bounds.put(component, newBounds);
+		if (!newBounds.coversSameCells(oldBounds))
+		{
+			removeFromCells(component, oldBounds);
+			addToCells(component, newBounds);
+		}
+		
+		countChange();
+	}
+	
+	/**
+	 * Finds the components whose bounding boxes contain the given position
+	 * @param position A position on the screen
+	 * @param result The list the components are added to
+	 */
+	public synchronized void getComponentsAt(Vector3D position, List<UIComponent> result)
+	{
+		for (int i = 0; i < this.largeComponents.size(); i++)
+		{
+			UIComponent component = this.largeComponents.get(i);
+			if (this.bounds.get(component).contains(position))
+				result.add(component);
+		}
+		
+		List<UIComponent> cell = this.cells.get(getCellKey(getCellIndex(position.getFirst()), 
+				getCellIndex(position.getSecond())));
+		if (cell == null)
+			return;
+		
+		for (int i = 0; i < cell.size(); i++)
+		{
+			UIComponent component = cell.get(i);
+			if (this.bounds.get(component).contains(position))
+				result.add(component);
+		}
+	}
+	
+	/**
+	 * @return The amount of components in the index
+	 */
+	public synchronized int getSize()
+	{
+		return this.bounds.size();
+	}
+	
+	/**
+	 * Finds the inverse of the component's current transformation. The inverse is only 
+	 * calculated again after the component has been transformed.
+	 * @param component An indexed component
+	 * @return The inverse transformation of the component. Null if the component isn't 
+	 * indexed.
+	 */
+	synchronized InverseTransformation getInverseTransformation(UIComponent component)
+	{
+		Bounds bounds = this.bounds.get(component);
+		if (bounds == null)
+			return null;
+		
+		return bounds.getInverseTransformation(component.getTransformation());
+	}
+	
+	/**
+	 * Changes the mouse router that informs the indexed buttons. While the router is alive, 
+	 * the indexed buttons are removed from the mouse listener handler so that the router is 
+	 * the only one informing them. The buttons are returned to the handler when they leave 
+	 * the index or when the router dies.
+	 * @param router The router that informs the indexed buttons
+	 * @param mouseHandler The mouse listener handler that delivers the events to the router
+	 */
+	synchronized void setRouter(UIMouseRouter router, MouseListenerHandler mouseHandler)
+	{
+		restoreAll();
+		
+		this.router = router;
+		this.mouseHandler = mouseHandler;
+		
+		for (UIComponent component : this.bounds.keySet())
+		{
+			if (component instanceof AbstractButton)
+				reroute((AbstractButton) component);
+		}
+	}
+	
+	private boolean isRouted()
+	{
+		if (this.router == null)
+			return false;
+		
+		// Once the router dies, the buttons go back to the mouse listener handler
+		if (this.router.getIsDeadStateOperator().getState())
+		{
+			restoreAll();
+			this.router = null;
+			this.mouseHandler = null;
+			return false;
+		}
+		
+		return true;
+	}
+	
+	private void reroute(AbstractButton button)
+	{
+		// The handler can't tell which objects it holds, so the index remembers the buttons
+		// it removed from there
+		if (this.reroutedButtons.add(button))
+			this.mouseHandler.removeHandled(button);
+	}
+	
+	private void restore(AbstractButton button)
+	{
+		// Only the buttons that were removed by the index are returned to the handler
+		if (this.reroutedButtons.remove(button) && 
+				!button.getIsDeadStateOperator().getState())
+			this.mouseHandler.add(button);
+	}
+	
+	private void restoreAll()
+	{
+		for (AbstractButton button : this.reroutedButtons)
+		{
+			if (!button.getIsDeadStateOperator().getState())
+				this.mouseHandler.add(button);
+		}
+		this.reroutedButtons.clear();
+	}
+	
+	private void countChange()
+	{
+		// The dead components are removed once the index has changed as many times as there
+		// are components, which keeps the cost of the changes constant on average
+		this.changesSincePurge ++;
+		if (this.changesSincePurge < this.bounds.size())
+			return;
+		
+		this.changesSincePurge = 0;
+		Iterator<Map.Entry<UIComponent, Bounds>> iterator = this.bounds.entrySet().iterator();
+		while (iterator.hasNext())
+		{
+			Map.Entry<UIComponent, Bounds> entry = iterator.next();
+			UIComponent component = entry.getKey();
+			if (component.getIsDeadStateOperator().getState())
+			{
+				iterator.remove();
+				removeFromCells(component, entry.getValue());
+				if (component instanceof AbstractButton)
+				{
+					((AbstractButton) component).setComponentIndex(null);
+					this.reroutedButtons.remove(component);
+				}
+			}
+		}
+		
+		// A dead router is noticed as well
+		isRouted();
+	}
+	
+	private void addToCells(UIComponent component, Bounds bounds)
+	{
+		if (bounds.isLarge())
+		{
+			this.largeComponents.add(component);
+			return;
+		}
+		
+		for (int x = bounds.minCellX; x <= bounds.maxCellX; x++)
+		{
+			for (int y = bounds.minCellY; y <= bounds.maxCellY; y++)
+			{
+				long key = getCellKey(x, y);
+				List<UIComponent> cell = this.cells.get(key);
+				if (cell == null)
+				{
+					cell = new ArrayList<>();
+					this.cells.put(key, cell);
+				}
+				cell.add(component);
+			}
+		}
+	}
+	
+	private void removeFromCells(UIComponent component, Bounds bounds)
+	{
+		if (bounds.isLarge())
+		{
+			this.largeComponents.remove(component);
+			return;
+		}
+		
+		for (int x = bounds.minCellX; x <= bounds.maxCellX; x++)
+		{
+			for (int y = bounds.minCellY; y <= bounds.maxCellY; y++)
+			{
+				long key = getCellKey(x, y);
+				List<UIComponent> cell = this.cells.get(key);
+				if (cell != null)
+				{
+					cell.remove(component);
+					if (cell.isEmpty())
+						this.cells.remove(key);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Calculates the axis aligned bounding box of a component on the screen
+	 * @param component A component
+	 * @return The smallest rectangle that contains all the transformed corners of the 
+	 * component
+	 */
+	static Rectangle2D getBoundingBox(UIComponent component)
+	{
+		Vector3D topLeft = component.getOrigin().times(-1);
+		return getBoundingBox(component.getTransformation(), new Rectangle2D.Double(
+				topLeft.getFirst(), topLeft.getSecond(), component.getDimensions().getFirst(), 
+				component.getDimensions().getSecond()));
+	}
+	
+	/**
+	 * Calculates the axis aligned bounding box of a transformed area on the screen
+	 * @param t The transformation applied to the area
+	 * @param area An area in the relative space of the transformation
+	 * @return The smallest rectangle that contains all the transformed corners of the area
+	 */
+	static Rectangle2D getBoundingBox(Transformation t, Rectangle2D area)
+	{
+		Vector3D topLeft = new Vector3D(area.getMinX(), area.getMinY());
+		Vector3D bottomRight = new Vector3D(area.getMaxX(), area.getMaxY());
+		Vector3D[] corners = {t.transform(topLeft), t.transform(bottomRight), 
+				t.transform(new Vector3D(topLeft.getFirst(), bottomRight.getSecond())), 
+				t.transform(new Vector3D(bottomRight.getFirst(), topLeft.getSecond()))};
+		
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (Vector3D corner : corners)
+		{
+			minX = Math.min(minX, corner.getFirst());
+			minY = Math.min(minY, corner.getSecond());
+			maxX = Math.max(maxX, corner.getFirst());
+			maxY = Math.max(maxY, corner.getSecond());
+		}
+		
+		return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+	}
+	
+	private int getCellIndex(double coordinate)
+	{
+		// Casting clamps the index to the int range (NaN becomes 0)
+		return (int) Math.floor(coordinate / this.cellSize);
+	}
+	
+	private static long getCellKey(int x, int y)
+	{
+		return ((long) x << 32) | (y & 0xffffffffL);
+	}
+	
+	
+	// SUBCLASSES	------------------------
+	
+	private class Bounds
+	{
+		// ATTRIBUTES	--------------------
+		
+		private double minX, minY, maxX, maxY;
+		private int minCellX, minCellY, maxCellX, maxCellY;
+		private Transformation transformation;
+		private InverseTransformation inverseTransformation;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public Bounds(UIComponent component)
+		{
+			Rectangle2D box = getBoundingBox(component);
+			this.minX = box.getMinX();
+			this.minY = box.getMinY();
+			this.maxX = box.getMaxX();
+			this.maxY = box.getMaxY();
+			
+			this.minCellX = getCellIndex(this.minX);
+			this.minCellY = getCellIndex(this.minY);
+			this.maxCellX = getCellIndex(this.maxX);
+			this.maxCellY = getCellIndex(this.maxY);
+			
+			this.transformation = null;
+			this.inverseTransformation = null;
+		}
+		
+		
+		// OTHER METHODS	----------------
+		
+		public boolean contains(Vector3D position)
+		{
+			return position.getFirst() >= this.minX && position.getFirst() <= this.maxX && 
+					position.getSecond() >= this.minY && position.getSecond() <= this.maxY;
+		}
+		
+		public InverseTransformation getInverseTransformation(Transformation t)
+		{
+			// Transformations are replaced when the component is transformed
+			if (t != this.transformation)
+			{
+				this.transformation = t;
+				this.inverseTransformation = new InverseTransformation(t);
+			}
+			
+			return this.inverseTransformation;
+		}
+		
+		public boolean isLarge()
+		{
+			return (long) this.maxCellX - this.minCellX >= MAX_CELL_SPAN || 
+					(long) this.maxCellY - this.minCellY >= MAX_CELL_SPAN;
+		}
+		
+		public boolean coversSameCells(Bounds other)
+		{
+			return this.minCellX == other.minCellX && this.minCellY == other.minCellY && 
+					this.maxCellX == other.maxCellX && this.maxCellY == other.maxCellY;
+		}
+	}
+	
+	private static class CellMap
+	{
+		// ATTRIBUTES	--------------------
+		
+		// The keys are stored as primitives, so finding a cell doesn't allocate anything
+		private long[] keys;
+		private Object[] cells;
+		private int size;
+		
+		
+		// CONSTRUCTOR	--------------------
+		
+		public CellMap()
+		{
+			this.keys = new long[64];
+			this.cells = new Object[64];
+			this.size = 0;
+		}
+		
+		
+		// OTHER METHODS	----------------
+		
+		@SuppressWarnings("unchecked")
+		public List<UIComponent> get(long key)
+		{
+			int slot = indexOf(key);
+			if (slot < 0)
+				return null;
+			return (List<UIComponent>) this.cells[slot];
+		}
+		
+		public void put(long key, List<UIComponent> cell)
+		{
+			// The table is kept at most half full
+			if ((this.size + 1) * 2 > this.keys.length)
+				resize(this.keys.length * 2);
+			
+			int slot = getSlot(key, this.keys.length);
+			while (this.cells[slot] != null && this.keys[slot] != key)
+			{
+				slot = (slot + 1) & (this.keys.length - 1);
+			}
+			if (this.cells[slot] == null)
+				this.size ++;
+			
+			this.keys[slot] = key;
+			this.cells[slot] = cell;
+		}
+		
+		public void remove(long key)
+		{
+			int slot = indexOf(key);
+			if (slot < 0)
+				return;
+			
+			// The following entries of the same run are moved back so that the searches
+			// don't stop at the emptied slot
+			int mask = this.keys.length - 1;
+			int empty = slot;
+			int next = (slot + 1) & mask;
+			while (this.cells[next] != null)
+			{
+				int home = getSlot(this.keys[next], this.keys.length);
+				if (((next - home) & mask) >= ((next - empty) & mask))
+				{
+					this.keys[empty] = this.keys[next];
+					this.cells[empty] = this.cells[next];
+					empty = next;
+				}
+				next = (next + 1) & mask;
+			}
+			this.cells[empty] = null;
+			this.size --;
+		}
+		
+		private int indexOf(long key)
+		{
+			int slot = getSlot(key, this.keys.length);
+			while (this.cells[slot] != null)
+			{
+				if (this.keys[slot] == key)
+					return slot;
+				slot = (slot + 1) & (this.keys.length - 1);
+			}
+			
+			return -1;
+		}
+		
+		private void resize(int capacity)
+		{
+			long[] oldKeys = this.keys;
+			Object[] oldCells = this.cells;
+			this.keys = new long[capacity];
+			this.cells = new Object[capacity];
+			
+			for (int i = 0; i < oldKeys.length; i++)
+			{
+				if (oldCells[i] != null)
+				{
+					int slot = getSlot(oldKeys[i], capacity);
+					while (this.cells[slot] != null)
+					{
+						slot = (slot + 1) & (capacity - 1);
+					}
+					this.keys[slot] = oldKeys[i];
+					this.cells[slot] = oldCells[i];
+				}
+			}
+		}
+		
+		private static int getSlot(long key, int capacity)
+		{
+			// The neighbouring cells are spread around the table
+			long hash = key * 0x9E3779B97F4A7C15L;
+			return (int) (hash >>> 32) & (capacity - 1);
+		}
+	}
+}
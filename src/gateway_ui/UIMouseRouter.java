@@ -0,0 +1,225 @@
+package gateway_ui;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import genesis_event.EventSelector;
+import genesis_event.GenesisHandlerType;
+import genesis_event.HandlerRelay;
+import genesis_event.MouseEvent;
+import genesis_event.MouseEvent.MouseButton;
+import genesis_event.MouseEvent.MouseButtonEventType;
+import genesis_event.MouseEvent.MouseEventType;
+import genesis_event.MouseListener;
+import genesis_event.MouseListenerHandler;
+import genesis_event.MultiEventSelector;
+import genesis_event.StrictEventSelector;
+import genesis_util.SimpleHandled;
+import genesis_util.Vector3D;
+
+/**
+ * UIMouseRouter delivers the mouse events to the buttons in a uiComponentIndex. Only the 
+ * buttons under the cursor are tested when the mouse moves, so large amounts of buttons 
+ * can be used without slowing down the mouse event handling. The router is the only object 
+ * that informs the indexed buttons, they are removed from the mouse listener handler while 
+ * they are in the index and the router is alive. Only the topmost component 
+ * (the one with the smallest depth) under the cursor receives the events. By default the 
+ * events are consumed by any indexed component, so that, for example, a message box in the 
+ * index keeps the buttons below it from reacting.
+ * @author agent
+ * @since 18.10.2026
+ */
+public class UIMouseRouter extends SimpleHandled implements MouseListener
+{
+	// ATTRIBUTES	------------------------
+	
+	private UIComponentIndex index;
+	private EventSelector<MouseEvent> selector;
+	private List<UIComponent> candidates;
+	private AbstractButton hovered, pressed;
+	private boolean consumesEvents;
+	
+	
+	// CONSTRUCTOR	------------------------
+	
+	/**
+	 * Creates a new router. Only one router should be created for each index.
+	 * @param index The index that contains the buttons
+	 * @param mouseHandler The mouse listener handler that informs the router. The indexed 
+	 * buttons are removed from this handler until they leave the index or the router dies.
+	 */
+	public UIMouseRouter(UIComponentIndex index, MouseListenerHandler mouseHandler)
+	{
+		super(createHandlerRelay(mouseHandler));
+		
+		this.index = index;
+		index.setRouter(this, mouseHandler);
+		this.candidates = new ArrayList<>();
+		this.hovered = null;
+		this.pressed = null;
+		this.consumesEvents = true;
+		
+		// The router is interested in all mouse movement and left mouse press & release
+		MultiEventSelector<MouseEvent> selector = new MultiEventSelector<>();
+		selector.addOption(MouseEvent.createMouseMoveSelector());
+		StrictEventSelector<MouseEvent, MouseEvent.Feature> leftStateChange = 
+				MouseEvent.createButtonStateChangeSelector();
+		leftStateChange.addRequiredFeature(MouseButton.LEFT);
+		selector.addOption(leftStateChange);
+		this.selector = selector;
+	}
+	
+	
+	// IMPLEMENTED METHODS	----------------
+	
+	@Override
+	public EventSelector<MouseEvent> getMouseEventSelector()
+	{
+		return this.selector;
+	}
+	
+	@Override
+	public boolean isInAreaOfInterest(Vector3D position)
+	{
+		// The router handles the areas of the buttons itself
+		return false;
+	}
+	
+	@Override
+	public void onMouseEvent(MouseEvent event)
+	{
+		// Dead buttons are forgotten without informing them
+		if (this.hovered != null && this.hovered.getIsDeadStateOperator().getState())
+			this.hovered = null;
+		if (this.pressed != null && this.pressed.getIsDeadStateOperator().getState())
+			this.pressed = null;
+		
+		if (event.getType() == MouseEventType.MOVEMENT)
+			updateHovered(event.getPosition());
+		else if (event.getButtonEventType() == MouseButtonEventType.PRESSED)
+		{
+			updateHovered(event.getPosition());
+			if (this.hovered != null)
+			{
+				this.hovered.onMousePress();
+				if (this.hovered.isPressed())
+					this.pressed = this.hovered;
+			}
+		}
+		// Buttons can be released anywhere
+		else if (this.pressed != null)
+		{
+			this.pressed.onMouseRelease();
+			this.pressed = null;
+		}
+	}
+	
+	
+	// GETTERS & SETTERS	----------------
+	
+	/**
+	 * @return Do the indexed components that aren't buttons block the events from the 
+	 * buttons below them
+	 */
+	public boolean consumesEvents()
+	{
+		return this.consumesEvents;
+	}
+	
+	/**
+	 * Changes whether the indexed components that aren't buttons block the events from the 
+	 * buttons below them. Buttons always block the buttons below them.
+	 * @param consumesEvents Should all indexed components consume the mouse events
+	 */
+	public void setConsumesEvents(boolean consumesEvents)
+	{
+		this.consumesEvents = consumesEvents;
+	}
+	
+	
+	// OTHER METHODS	--------------------
+	
+	private static HandlerRelay createHandlerRelay(MouseListenerHandler mouseHandler)
+	{
+		HandlerRelay handlers = new HandlerRelay();
+		handlers.addHandler(mouseHandler);
+		return handlers;
+	}
+	
+	private void updateHovered(Vector3D position)
+	{
+		AbstractButton lastHovered = this.hovered;
+		this.hovered = findTopmostButton(position);
+		
+		if (lastHovered != this.hovered)
+		{
+			if (lastHovered != null)
+				lastHovered.onMouseExit();
+			if (this.hovered != null)
+				this.hovered.onMouseEnter();
+		}
+	}
+	
+	private AbstractButton findTopmostButton(Vector3D position)
+	{
+		// Only the components close to the position are tested
+		this.index.getComponentsAt(position, this.candidates);
+		
+		// Smaller depth is drawn on top. Of the components with the same depth, the one
+		// added last is picked.
+		UIComponent topmost = null;
+		for (UIComponent component : this.candidates)
+		{
+			if ((topmost == null || component.getDepth() <= topmost.getDepth()) && 
+					blocksEvents(component, position))
+				topmost = component;
+		}
+		this.candidates.clear();
+		
+		if (topmost instanceof AbstractButton)
+			return (AbstractButton) topmost;
+		return null;
+	}
+	
+	private boolean blocksEvents(UIComponent component, Vector3D position)
+	{
+		// Dead components are removed from the index
+		if (component.getIsDeadStateOperator().getState())
+		{
+			this.index.remove(component);
+			return false;
+		}
+		
+		if (component instanceof AbstractButton)
+		{
+			AbstractButton button = (AbstractButton) component;
+			return isListening(button) && button.containsPoint(position.getFirst(), 
+					position.getSecond());
+		}
+		
+		// Other components only block the events while they are visible
+		if (!this.consumesEvents || !component.getHandlingOperators().getShouldBeHandledOperator(
+				GenesisHandlerType.DRAWABLEHANDLER).getState())
+			return false;
+		
+		// The hit test uses a cached inverse, like the buttons do
+		InverseTransformation inverse = this.index.getInverseTransformation(component);
+		if (inverse == null)
+			return false;
+		
+		Vector3D origin = component.getOrigin();
+		Vector3D dimensions = component.getDimensions();
+		double x = inverse.transformX(position.getFirst(), position.getSecond()) + 
+				origin.getFirst();
+		double y = inverse.transformY(position.getFirst(), position.getSecond()) + 
+				origin.getSecond();
+		
+		return x >= 0 && x <= dimensions.getFirst() && y >= 0 && y <= dimensions.getSecond();
+	}
+	
+	private static boolean isListening(AbstractButton button)
+	{
+		return button.getHandlingOperators().getShouldBeHandledOperator(
+				GenesisHandlerType.MOUSEHANDLER).getState();
+	}
+}